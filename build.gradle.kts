@@ -4,6 +4,7 @@ plugins {
     application
     jacoco
     alias(libs.plugins.javafx)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.error.prone)
     alias(libs.plugins.shadow)
     alias(libs.plugins.build.time.tracker)
@@ -19,8 +20,12 @@ repositories {
     mavenCentral()
 }
 
+// The inline cycle budget clock of the emulator farm runs its component in a continuation of the JDK.
+val continuations = "--add-exports=java.base/jdk.internal.vm=ALL-UNNAMED"
+
 application {
     mainClass = "de.heiden.jem.models.c64.C64Serial"
+    applicationDefaultJvmArgs = listOf(continuations)
 }
 
 java {
@@ -67,7 +72,8 @@ tasks.withType<JavaCompile>().configureEach {
     options.encoding = "UTF-8"
     options.compilerArgs.addAll(listOf(
         // Persist parameter names for reflection.
-        "-parameters"
+        "-parameters",
+        continuations
     ))
 
     options.errorprone {
@@ -96,6 +102,7 @@ tasks.shadowJar {
         attributes(
             "Implementation-Title" to "JemC64",
             "Implementation-Version" to archiveVersion,
+            "Add-Exports" to "java.base/jdk.internal.vm",
             // "Launcher-Agent-Class" to "org.serialthreads.agent.Agent",
         )
     }
@@ -111,7 +118,8 @@ tasks.test {
         "-Duser.country=US",
         "-Duser.timezone=UTC",
         // Prevent warnings from test setups. Avoid conflicts with JaCoCo.
-        "-Xshare:off"
+        "-Xshare:off",
+        continuations
     )
 
     ignoreFailures = false
@@ -119,6 +127,49 @@ tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
 
+tasks.register<Test>("testCycleBudget") {
+    description = "Runs the VICE tests with test C64s using the cycle budget clock instead of the serial clock."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform()
+    jvmArgs(tasks.test.get().jvmArgs.orEmpty())
+    systemProperty("jem.test.clock", "budget")
+    filter {
+        includeTestsMatching("de.heiden.jem.models.c64.vice.*")
+    }
+}
+
+jmh {
+    // Benchmarks in src/jmh/java. Run with ./gradlew jmh.
+    jmhVersion = libs.versions.jmh.get()
+    // Select benchmarks e.g. with ./gradlew jmh -Pjmh.includes=ClockBenchmark.
+    providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+    // Machine-readable results, e.g. to track regressions between releases.
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
+tasks.register<JavaExec>("benchmark") {
+    description = "Runs the end-to-end emulation benchmark for all clocks headless."
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "de.heiden.jem.models.c64.EmulationBenchmark"
+    jvmArgs("-Djava.awt.headless=true")
+    // Pass arguments e.g. with ./gradlew benchmark -Pbenchmark.args="--seconds=30 --clocks=Serial".
+    providers.gradleProperty("benchmark.args").orNull?.let { args(it.split(" ")) }
+}
+
+tasks.register<JavaExec>("farmBenchmark") {
+    description = "Runs the throughput benchmark of the emulator farm for different numbers of workers headless."
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "de.heiden.jem.models.c64.farm.EmulatorFarmBenchmark"
+    jvmArgs("-Djava.awt.headless=true", continuations)
+    // Pass arguments e.g. with ./gradlew farmBenchmark -PfarmBenchmark.args="--jobs=64 --parallelism=1,8".
+    providers.gradleProperty("farmBenchmark.args").orNull?.let { args(it.split(" ")) }
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
     reports {
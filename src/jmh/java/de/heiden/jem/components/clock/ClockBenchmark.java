@@ -0,0 +1,122 @@
+package de.heiden.jem.components.clock;
+
+import de.heiden.jem.components.clock.loom.SequentialFiberExecutorClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberLatchClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberParkClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberYieldClock;
+import de.heiden.jem.components.clock.serialthreads.SerialClock;
+import de.heiden.jem.components.clock.threads.ParallelBarrierClock;
+import de.heiden.jem.components.clock.threads.ParallelNotifyClock;
+import de.heiden.jem.components.clock.threads.ParallelSpinClock;
+import de.heiden.jem.components.clock.threads.ParallelYieldClock;
+import de.heiden.jem.components.clock.threads.SequentialClock;
+import de.heiden.jem.components.clock.threads.SequentialSpinClock;
+import de.heiden.jem.components.clock.threads.SequentialYieldClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.serialthreads.agent.TransformingClassLoader;
+import org.serialthreads.transformer.Strategies;
+
+import java.util.function.IntConsumer;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Benchmark comparing {@link Clock} implementations.
+ * <p>
+ * Measures ticks per second and the average time per tick for different numbers of clocked components,
+ * with and without clock events. Each component does nothing but waiting for the next tick,
+ * so the results show the pure overhead of the clock.
+ * {@link de.heiden.jem.components.clock.budget.CycleBudgetClock} is not included,
+ * because it supports just one component.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClockBenchmark {
+    /**
+     * Number of ticks per benchmark invocation.
+     * Amortizes the suspension of the clock at the end of each run.
+     */
+    private static final int TICKS = 100_000;
+
+    /**
+     * Clock implementation.
+     */
+    @Param({
+            "SerialClock",
+            "SequentialClock", "SequentialSpinClock", "SequentialYieldClock",
+            "ParallelBarrierClock", "ParallelNotifyClock", "ParallelSpinClock", "ParallelYieldClock",
+            "SequentialFiberExecutorClock", "SequentialFiberLatchClock", "SequentialFiberParkClock", "SequentialFiberYieldClock"
+    })
+    public String clockType;
+
+    /**
+     * Number of clocked components.
+     */
+    @Param({ "2", "3", "8", "32" })
+    public int numComponents;
+
+    /**
+     * Add periodic clock events?.
+     */
+    @Param({ "false", "true" })
+    public boolean events;
+
+    /**
+     * Clock under test.
+     */
+    private IntConsumer clock;
+
+    @Setup
+    public void setUp() throws Exception {
+        var clockClass = switch (clockType) {
+            case "SerialClock" -> SerialClock.class;
+            case "SequentialClock" -> SequentialClock.class;
+            case "SequentialSpinClock" -> SequentialSpinClock.class;
+            case "SequentialYieldClock" -> SequentialYieldClock.class;
+            case "ParallelBarrierClock" -> ParallelBarrierClock.class;
+            case "ParallelNotifyClock" -> ParallelNotifyClock.class;
+            case "ParallelSpinClock" -> ParallelSpinClock.class;
+            case "ParallelYieldClock" -> ParallelYieldClock.class;
+            case "SequentialFiberExecutorClock" -> SequentialFiberExecutorClock.class;
+            case "SequentialFiberLatchClock" -> SequentialFiberLatchClock.class;
+            case "SequentialFiberParkClock" -> SequentialFiberParkClock.class;
+            case "SequentialFiberYieldClock" -> SequentialFiberYieldClock.class;
+            default -> throw new IllegalArgumentException("Unknown clock type " + clockType + ".");
+        };
+
+        // The serial clock needs transformed components.
+        var classLoader = clockClass == SerialClock.class ?
+                new TransformingClassLoader(getClass().getClassLoader(), Strategies.DEFAULT, "de.heiden.jem") :
+                getClass().getClassLoader();
+        clock = (IntConsumer) classLoader.loadClass(ClockBenchmarkSetup.class.getName())
+                .getConstructor(String.class, int.class, boolean.class)
+                .newInstance(clockClass.getName(), numComponents, events);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ((AutoCloseable) clock).close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void ticks() {
+        clock.accept(TICKS);
+    }
+}
@@ -0,0 +1,117 @@
+package de.heiden.jem.components.clock;
+
+import org.serialthreads.Interruptible;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Clock with components and events for {@link ClockBenchmark}.
+ * Implements just JDK interfaces, so that it can be loaded by a transforming class loader too.
+ */
+public final class ClockBenchmarkSetup implements IntConsumer, AutoCloseable {
+    /**
+     * Periods of the events. Roughly like raster line, raster irq and real time slow down.
+     */
+    private static final int[] EVENT_PERIODS = { 63, 312 * 63, 100_000 };
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Constructor.
+     *
+     * @param clockClass
+     *         name of clock class
+     * @param numComponents
+     *         number of clocked components
+     * @param events
+     *         add periodic clock events?
+     */
+    public ClockBenchmarkSetup(String clockClass, int numComponents, boolean events) throws Exception {
+        clock = (Clock) Class.forName(clockClass, true, getClass().getClassLoader()).getConstructor().newInstance();
+        for (int i = 0; i < numComponents; i++) {
+            clock.addClockedComponent(i, new BenchmarkComponent());
+        }
+        if (events) {
+            for (int period : EVENT_PERIODS) {
+                clock.addClockEvent(period, new PeriodicEvent(period));
+            }
+        }
+    }
+
+    /**
+     * Run clock for the given number of ticks.
+     */
+    @Override
+    public void accept(int ticks) {
+        clock.run(ticks);
+    }
+
+    @Override
+    public void close() {
+        clock.close();
+    }
+
+    /**
+     * Event rescheduling itself periodically.
+     */
+    private final class PeriodicEvent extends ClockEvent {
+        /**
+         * Period in ticks.
+         */
+        private final int period;
+
+        /**
+         * Constructor.
+         *
+         * @param period
+         *         period in ticks
+         */
+        private PeriodicEvent(int period) {
+            super("Periodic " + period);
+            this.period = period;
+        }
+
+        @Override
+        public void execute(long tick) {
+            clock.addClockEvent(tick + period, this);
+        }
+    }
+
+    /**
+     * Component just counting ticks.
+     */
+    private static final class BenchmarkComponent implements ClockedComponent {
+        /**
+         * Tick.
+         */
+        private Tick tick;
+
+        /**
+         * Count.
+         */
+        private long count;
+
+        @Override
+        public String getName() {
+            return "Benchmark component";
+        }
+
+        @Override
+        public void setTick(Tick tick) {
+            this.tick = tick;
+        }
+
+        @Override
+        @Interruptible
+        public void run() {
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                count++;
+                tick.waitForTick();
+            }
+        }
+    }
+}
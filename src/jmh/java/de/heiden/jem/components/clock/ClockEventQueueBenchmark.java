@@ -0,0 +1,125 @@
+package de.heiden.jem.components.clock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Benchmark comparing {@link ClockEventQueue} implementations.
+ * <p>
+ * Simulates a clock: Each tick the due events are polled. Each executed event reschedules itself.
+ * Most delays are short (like VIC or CIA events), some are long (like the real time slow down).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockEventQueueBenchmark {
+    /**
+     * Number of ticks per benchmark invocation.
+     */
+    private static final int TICKS = 100_000;
+
+    /**
+     * Queue implementation.
+     */
+    @Param({"linked", "wheel"})
+    public String queueType;
+
+    /**
+     * Number of concurrently registered events.
+     */
+    @Param({"4", "16", "64"})
+    public int numEvents;
+
+    /**
+     * Queue under test.
+     */
+    private ClockEventQueue queue;
+
+    /**
+     * Precomputed delays, to avoid random number generation during measurement.
+     */
+    private final int[] delays = new int[1 << 16];
+
+    /**
+     * Index of the next delay to use.
+     */
+    private int nextDelay = 0;
+
+    /**
+     * Current tick.
+     */
+    private long tick;
+
+    @Setup
+    public void setUp() {
+        queue = switch (queueType) {
+            case "linked" -> new LinkedClockEventQueue();
+            case "wheel" -> new TimingWheelClockEventQueue();
+            default -> throw new IllegalArgumentException("Unknown queue type " + queueType + ".");
+        };
+
+        var random = new Random(42);
+        for (int i = 0; i < delays.length; i++) {
+            // 1 of 16 events is far in the future.
+            delays[i] = 1 + (random.nextInt(16) == 0 ? random.nextInt(20_000) : random.nextInt(64));
+        }
+
+        tick = 0;
+        for (int i = 0; i < numEvents; i++) {
+            queue.add(tick + delay(), new RescheduleEvent());
+        }
+    }
+
+    /**
+     * Next delay.
+     */
+    private int delay() {
+        return delays[nextDelay++ & (delays.length - 1)];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long ticks() {
+        for (final long end = tick + TICKS; tick < end; ) {
+            tick++;
+            for (ClockEvent event; (event = queue.poll(tick)) != null; ) {
+                event.execute(tick);
+            }
+        }
+        return tick;
+    }
+
+    /**
+     * Event rescheduling itself.
+     */
+    private final class RescheduleEvent extends ClockEvent {
+        /**
+         * Constructor.
+         */
+        private RescheduleEvent() {
+            super("Reschedule");
+        }
+
+        @Override
+        public void execute(long tick) {
+            queue.add(tick + delay(), this);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package de.heiden.jem.models.c64;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberExecutorClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberLatchClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberParkClock;
+import de.heiden.jem.components.clock.loom.SequentialFiberYieldClock;
+import de.heiden.jem.components.clock.serialthreads.SerialClock;
+import de.heiden.jem.components.clock.threads.ParallelBarrierClock;
+import de.heiden.jem.components.clock.threads.SequentialSpinClock;
+import org.serialthreads.agent.TransformingClassLoader;
+import org.serialthreads.transformer.Strategies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.ALLOCATED;
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.GC_COUNT;
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.GC_TIME;
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.INSTRUCTIONS;
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.NANOS;
+import static de.heiden.jem.models.c64.EmulationBenchmarkRun.TICKS;
+
+/**
+ * End-to-end benchmark: Emulation speed of a complete C64 for each clock strategy.
+ * <p>
+ * Boots a C64 without real time slow down, starts a program and measures a fixed number of emulated seconds.
+ * Reports emulated MHz, executed instructions per second, allocation rate and garbage collections.
+ * Runs headless, e.g. via ./gradlew benchmark.
+ * <p>
+ * Arguments (all optional):
+ * <ul>
+ *     <li>--seconds=n: emulated seconds to measure, default 10</li>
+ *     <li>--program=file.prg: program to run, e.g. a Lorenz test, default a built-in loop</li>
+ *     <li>--suite=directory: run all programs of a test suite one after another and report their sum instead,
+ *     e.g. src/test/resources/vice-emu-testprogs/general/Lorenz-2.15/src for instructions per second
+ *     over the whole Lorenz suite</li>
+ *     <li>--clocks=name,...: clocks to benchmark, default all</li>
+ * </ul>
+ */
+public class EmulationBenchmark {
+    /**
+     * Emulated seconds to boot, before the program gets started.
+     */
+    private static final int BOOT_SECONDS = 3;
+
+    /**
+     * Programs of the Lorenz suite which are no tests.
+     */
+    private static final Set<String> NO_TESTS = Set.of("start.prg", "nextdisk1.prg", "nextdisk2.prg", "finish.prg");
+
+    /**
+     * Clock strategies: Name -> clock class and use of the lazy vic.
+     */
+    private static final Map<String, Strategy> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("Serial", new Strategy(SerialClock.class, false));
+        STRATEGIES.put("SequentialSpin", new Strategy(SequentialSpinClock.class, false));
+        STRATEGIES.put("ParallelBarrier", new Strategy(ParallelBarrierClock.class, false));
+        STRATEGIES.put("SequentialFiberExecutor", new Strategy(SequentialFiberExecutorClock.class, false));
+        STRATEGIES.put("SequentialFiberLatch", new Strategy(SequentialFiberLatchClock.class, false));
+        STRATEGIES.put("SequentialFiberPark", new Strategy(SequentialFiberParkClock.class, false));
+        STRATEGIES.put("SequentialFiberYield", new Strategy(SequentialFiberYieldClock.class, false));
+        STRATEGIES.put("CycleBudget", new Strategy(CycleBudgetClock.class, true));
+    }
+
+    /**
+     * Start the benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int seconds = 10;
+        List<String> programs = Collections.singletonList(null);
+        var names = STRATEGIES.keySet().toArray(String[]::new);
+        for (String arg : args) {
+            if (arg.startsWith("--seconds=")) {
+                seconds = Integer.parseInt(arg.substring("--seconds=".length()));
+            } else if (arg.startsWith("--program=")) {
+                programs = List.of(arg.substring("--program=".length()));
+            } else if (arg.startsWith("--suite=")) {
+                programs = suite(Path.of(arg.substring("--suite=".length())));
+            } else if (arg.startsWith("--clocks=")) {
+                names = arg.substring("--clocks=".length()).split(",");
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg + ".");
+            }
+        }
+
+        System.out.printf("%-24s %10s %10s %12s %10s %8s %10s%n",
+                "Clock", "MHz", "MIPS", "MB/s alloc", "MB/emu s", "GCs", "GC ms");
+        for (String name : names) {
+            var strategy = STRATEGIES.get(name);
+            if (strategy == null) {
+                throw new IllegalArgumentException("Unknown clock " + name + ".");
+            }
+
+            var result = new long[INSTRUCTIONS + 1];
+            for (String program : programs) {
+                var single = run(strategy, seconds, program);
+                Arrays.setAll(result, i -> result[i] + single[i]);
+            }
+            double secondsElapsed = result[NANOS] / 1e9;
+            double megabytes = result[ALLOCATED] / (1024.0 * 1024.0);
+            System.out.printf("%-24s %10.3f %10.3f %12.1f %10.1f %8d %10d%n",
+                    name,
+                    result[TICKS] / secondsElapsed / 1e6,
+                    result[INSTRUCTIONS] / secondsElapsed / 1e6,
+                    megabytes / secondsElapsed,
+                    megabytes / seconds / programs.size(),
+                    result[GC_COUNT],
+                    result[GC_TIME]);
+        }
+    }
+
+    /**
+     * Programs of a test suite, without the programs which are no tests.
+     *
+     * @param directory
+     *         directory containing the programs
+     */
+    private static List<String> suite(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            var programs = files
+                    .filter(file -> file.getFileName().toString().endsWith(".prg"))
+                    .filter(file -> !NO_TESTS.contains(file.getFileName().toString()))
+                    .map(Path::toString)
+                    .sorted()
+                    .toList();
+            if (programs.isEmpty()) {
+                throw new IllegalArgumentException("No programs in " + directory + ".");
+            }
+            return programs;
+        }
+    }
+
+    /**
+     * Benchmark one clock strategy.
+     */
+    @SuppressWarnings("unchecked")
+    private static long[] run(Strategy strategy, int seconds, String program) throws Exception {
+        // The serial clock needs transformed components.
+        var classLoader = strategy.clockClass == SerialClock.class ?
+                new TransformingClassLoader(EmulationBenchmark.class.getClassLoader(), Strategies.DEFAULT, "de.heiden.jem") :
+                EmulationBenchmark.class.getClassLoader();
+        var run = (Callable<long[]>) classLoader.loadClass(EmulationBenchmarkRun.class.getName())
+                .getConstructor(String.class, boolean.class, int.class, int.class, String.class)
+                .newInstance(strategy.clockClass.getName(), strategy.lazyVic, BOOT_SECONDS, seconds, program);
+        return run.call();
+    }
+
+    /**
+     * Clock strategy.
+     *
+     * @param clockClass
+     *         clock class
+     * @param lazyVic
+     *         use lazy vic?
+     */
+    private record Strategy(Class<?> clockClass, boolean lazyVic) {
+    }
+}
@@ -0,0 +1,218 @@
+package de.heiden.jem.models.c64;
+
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.cpu.CPU6510;
+import org.serialthreads.Interruptible;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Single run of {@link EmulationBenchmark} with one clock.
+ * Implements just JDK interfaces, so that it can be loaded by a transforming class loader too.
+ */
+public final class EmulationBenchmarkRun implements Callable<long[]> {
+    /**
+     * Clock frequency of a PAL C64.
+     */
+    static final int FREQUENCY = 985248;
+
+    /**
+     * Index of measured ticks in result.
+     */
+    static final int TICKS = 0;
+
+    /**
+     * Index of measured nanoseconds in result.
+     */
+    static final int NANOS = 1;
+
+    /**
+     * Index of allocated bytes in result.
+     */
+    static final int ALLOCATED = 2;
+
+    /**
+     * Index of number of garbage collections in result.
+     */
+    static final int GC_COUNT = 3;
+
+    /**
+     * Index of garbage collection time in ms in result.
+     */
+    static final int GC_TIME = 4;
+
+    /**
+     * Index of executed instructions in result.
+     */
+    static final int INSTRUCTIONS = 5;
+
+    /**
+     * Default program: CPU bound loop with screen ram and vic accesses. Started at $C000 via SYS.
+     */
+    private static final byte[] DEFAULT_PROGRAM = {
+            (byte) 0x00, (byte) 0xC0, // load address $C000
+            (byte) 0xA2, (byte) 0x00, // $C000: LDX #$00
+            (byte) 0xFE, (byte) 0x00, (byte) 0x04, // $C002: INC $0400,X
+            (byte) 0xE8, // $C005: INX
+            (byte) 0xD0, (byte) 0xFA, // $C006: BNE $C002
+            (byte) 0xEE, (byte) 0x20, (byte) 0xD0, // $C008: INC $D020
+            (byte) 0x4C, (byte) 0x00, (byte) 0xC0, // $C00B: JMP $C000
+    };
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * CPU, counting the executed instructions.
+     */
+    private final InstructionCounter cpu;
+
+    /**
+     * C64.
+     */
+    private final C64 c64;
+
+    /**
+     * Program to run.
+     */
+    private final byte[] program;
+
+    /**
+     * Emulated seconds to boot.
+     */
+    private final int bootSeconds;
+
+    /**
+     * Emulated seconds to measure.
+     */
+    private final int seconds;
+
+    /**
+     * Metrics at the start of the measurement.
+     */
+    private long[] start;
+
+    /**
+     * Constructor.
+     *
+     * @param clockClass
+     *         name of clock class
+     * @param lazyVic
+     *         use lazy vic?
+     * @param bootSeconds
+     *         emulated seconds to boot, before the program gets started
+     * @param seconds
+     *         emulated seconds to measure
+     * @param program
+     *         path of program (.prg) to run or null for a default program
+     */
+    public EmulationBenchmarkRun(String clockClass, boolean lazyVic, int bootSeconds, int seconds, String program) throws Exception {
+        this.clock = (Clock) Class.forName(clockClass, true, getClass().getClassLoader()).getConstructor().newInstance();
+        this.cpu = new InstructionCounter();
+        this.c64 = new C64(clock, cpu, lazyVic, false);
+        this.program = program != null ? Files.readAllBytes(Path.of(program)) : DEFAULT_PROGRAM;
+        this.bootSeconds = bootSeconds;
+        this.seconds = seconds;
+    }
+
+    /**
+     * Boot, start program and measure.
+     *
+     * @return Metrics, see {@link #TICKS} etc.
+     */
+    @Override
+    public long[] call() {
+        long bootTicks = (long) bootSeconds * FREQUENCY;
+        clock.addClockEvent(bootTicks, new ClockEvent("Start program") {
+            @Override
+            public void execute(long tick) {
+                start(c64.getCpuBus());
+                start = metrics(tick, cpu.instructions());
+            }
+        });
+
+        // Just one run, because not all clocks support multiple runs.
+        clock.run(Math.toIntExact(bootTicks + (long) seconds * FREQUENCY));
+        var end = metrics(clock.getTick(), cpu.instructions());
+        clock.close();
+
+        var result = new long[end.length];
+        for (int i = 0; i < end.length; i++) {
+            result[i] = end[i] - start[i];
+        }
+        return result;
+    }
+
+    /**
+     * Load the program and start it via the keyboard buffer.
+     */
+    private void start(BusDevice bus) {
+        int address = program[0] & 0xFF | (program[1] & 0xFF) << 8;
+        for (int i = 2; i < program.length; i++) {
+            bus.write(program[i] & 0xFF, address + i - 2);
+        }
+
+        String command;
+        if (address == 0x0801) {
+            // Basic program: Set end of program.
+            int end = address + program.length - 2;
+            bus.write(end & 0xFF, 0x2D);
+            bus.write(end >> 8, 0x2E);
+            command = "RUN\r";
+        } else {
+            command = "SYS" + address + "\r";
+        }
+
+        // Type the command into the keyboard buffer.
+        for (int i = 0; i < command.length(); i++) {
+            bus.write(command.charAt(i), 0x0277 + i);
+        }
+        bus.write(command.length(), 0xC6);
+    }
+
+    /**
+     * Current metrics.
+     */
+    private static long[] metrics(long tick, long instructions) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcCount = 0;
+        long gcTime = 0;
+        for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{ tick, System.nanoTime(), threads.getTotalThreadAllocatedBytes(), gcCount, gcTime, instructions };
+    }
+
+    /**
+     * CPU counting the executed instructions.
+     */
+    private static final class InstructionCounter extends CPU6510 {
+        /**
+         * Number of executed instructions.
+         */
+        private long instructions = 0;
+
+        @Override
+        @Interruptible
+        protected void execute() {
+            instructions++;
+            super.execute();
+        }
+
+        /**
+         * Number of executed instructions.
+         */
+        long instructions() {
+            return instructions;
+        }
+    }
+}
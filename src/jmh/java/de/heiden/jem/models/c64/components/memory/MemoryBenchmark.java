@@ -0,0 +1,147 @@
+package de.heiden.jem.models.c64.components.memory;
+
+import de.heiden.jem.components.bus.BusDevice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.foreign.Arena;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Benchmark comparing the byte packed {@link RAM} on and off the heap with the former int array based storage.
+ * <p>
+ * Replays the memory accesses of one frame: The vic fetches of a bitmap mode screen
+ * interleaved with cpu accesses, which are mostly local (zero page, stack, code) and sometimes anywhere.
+ * Use {@code -prof perfnorm} to see the cache misses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBenchmark {
+    /**
+     * Storage type.
+     */
+    @Param({"byte", "offheap", "int"})
+    public String storage;
+
+    /**
+     * Memory under test.
+     */
+    private BusDevice ram;
+
+    /**
+     * Addresses of the vic fetches of one frame.
+     */
+    private int[] vicAddresses;
+
+    /**
+     * Addresses of the cpu accesses of one frame.
+     */
+    private int[] cpuAddresses;
+
+    @Setup
+    public void setUp() {
+        ram = switch (storage) {
+            case "byte" -> new RAM(0x10000);
+            case "offheap" -> new RAM(Arena.ofAuto().allocate(0x10000));
+            case "int" -> new IntRAM(0x10000);
+            default -> throw new IllegalArgumentException("Unknown storage " + storage + ".");
+        };
+
+        // Bitmap mode: Screen ram at $0400 once per character row, bitmap at $2000 every line.
+        vicAddresses = new int[25 * 40 + 200 * 40];
+        int i = 0;
+        for (int line = 0; line < 200; line++) {
+            for (int column = 0; column < 40; column++) {
+                if ((line & 7) == 0) {
+                    vicAddresses[i++] = 0x0400 + (line >> 3) * 40 + column;
+                }
+                vicAddresses[i++] = 0x2000 + (line >> 3) * 320 + column * 8 + (line & 7);
+            }
+        }
+
+        // About 1 cpu access per cycle of a PAL frame.
+        var random = new Random(42);
+        cpuAddresses = new int[63 * 312];
+        int pc = 0xC000;
+        for (int j = 0; j < cpuAddresses.length; j++) {
+            cpuAddresses[j] = switch (random.nextInt(8)) {
+                case 0 -> random.nextInt(0x100);
+                case 1 -> 0x100 + random.nextInt(0x100);
+                case 2 -> random.nextInt(0x10000);
+                default -> pc = 0xC000 + ((pc + 1) & 0x0FFF);
+            };
+        }
+    }
+
+    @Benchmark
+    public int frame() {
+        final BusDevice ram = this.ram;
+        int result = 0;
+        int vic = 0;
+        for (int j = 0; j < cpuAddresses.length; j++) {
+            int address = cpuAddresses[j];
+            int value = ram.read(address);
+            if ((j & 3) == 0) {
+                ram.write((value + 1) & 0xFF, address);
+            }
+            result += value;
+
+            // The vic gets about 1 of 2 cycles, when it is displaying the screen.
+            if ((j & 1) == 0 && vic < vicAddresses.length) {
+                result += ram.read(vicAddresses[vic++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * RAM storing each byte in an int, like {@link AbstractMemory} did before.
+     */
+    private static final class IntRAM implements BusDevice {
+        /**
+         * Address mask.
+         */
+        private final int mask;
+
+        /**
+         * Memory content.
+         */
+        private final int[] memory;
+
+        /**
+         * Constructor.
+         *
+         * @param size
+         *         size in bytes
+         */
+        private IntRAM(int size) {
+            mask = size - 1;
+            memory = new int[size];
+        }
+
+        @Override
+        public void write(int value, int address) {
+            memory[address & mask] = value;
+        }
+
+        @Override
+        public int read(int address) {
+            return memory[address & mask];
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.heiden.jem.models.c64.farm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Throughput of the {@link EmulatorFarm} depending on the number of workers.
+ * <p>
+ * After a warm up, runs the same number of jobs with an endless basic loop for each number of workers
+ * and reports the jobs per second, the emulated MHz summed over all C64s and the speedup relative to one worker.
+ * Scales linearly with the cores, as long as there are at least as many cores as workers.
+ * Runs headless, e.g. via ./gradlew farmBenchmark.
+ * <p>
+ * Arguments (all optional):
+ * <ul>
+ *     <li>--jobs=n: jobs per measurement, default 4 per core</li>
+ *     <li>--ticks=n: ticks per job, default 5000000</li>
+ *     <li>--parallelism=n,...: numbers of workers to measure, default 1, 2, 4, ... up to the number of cores</li>
+ * </ul>
+ */
+public class EmulatorFarmBenchmark {
+    /**
+     * Basic program "10 GOTO 10", starting with its load address.
+     */
+    private static final byte[] LOOP = {
+            0x01, 0x08,
+            0x09, 0x08, 0x0A, 0x00, (byte) 0x89, 0x31, 0x30, 0x00,
+            0x00, 0x00
+    };
+
+    /**
+     * Start the benchmark.
+     */
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int jobs = 4 * cores;
+        long ticks = 5_000_000;
+        int[] parallelisms = null;
+        for (String arg : args) {
+            if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            } else if (arg.startsWith("--ticks=")) {
+                ticks = Long.parseLong(arg.substring("--ticks=".length()));
+            } else if (arg.startsWith("--parallelism=")) {
+                parallelisms = Arrays.stream(arg.substring("--parallelism=".length()).split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg + ".");
+            }
+        }
+        if (parallelisms == null) {
+            var defaults = new ArrayList<Integer>();
+            for (int parallelism = 1; parallelism < cores; parallelism *= 2) {
+                defaults.add(parallelism);
+            }
+            defaults.add(cores);
+            parallelisms = defaults.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        System.out.printf("Cores: %d, jobs: %d, ticks per job: %d%n", cores, jobs, ticks);
+        // Warm up: Let the JIT compile the emulation, before the first measurement.
+        run(cores, jobs, ticks);
+
+        System.out.printf("%-12s %10s %10s %10s %10s%n", "Parallelism", "Seconds", "Jobs/s", "MHz", "Speedup");
+        double base = 0;
+        for (int parallelism : parallelisms) {
+            double mhz = run(parallelism, jobs, ticks);
+            if (base == 0) {
+                base = mhz / parallelism;
+            }
+            System.out.printf("%-12d %10.2f %10.2f %10.3f %10.2f%n",
+                    parallelism, jobs * ticks / mhz / 1e6, mhz * 1e6 / ticks, mhz, mhz / base);
+        }
+    }
+
+    /**
+     * Run the jobs with the given number of workers.
+     *
+     * @return Emulated MHz summed over all C64s.
+     */
+    private static double run(int parallelism, int jobs, long ticks) throws Exception {
+        try (var farm = new EmulatorFarm(parallelism, EmulatorFarm.DEFAULT_QUANTUM)) {
+            long start = System.nanoTime();
+            var results = new ArrayList<CompletableFuture<Result>>();
+            for (int i = 0; i < jobs; i++) {
+                results.add(farm.submit(new Job("loop " + i, LOOP, ticks)));
+            }
+            for (var result : results) {
+                check(result.get(), ticks);
+            }
+            long nanos = System.nanoTime() - start;
+
+            return (double) jobs * ticks / nanos * 1e3;
+        }
+    }
+
+    /**
+     * Check that the job ran for the expected number of ticks.
+     */
+    private static void check(Result result, long ticks) {
+        if (result.failure() != null || result.ticks() != ticks) {
+            throw new IllegalStateException("Job " + result.job() + " failed after " + result.ticks() + " ticks.",
+                    result.failure());
+        }
+    }
+}
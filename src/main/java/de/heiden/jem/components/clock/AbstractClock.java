@@ -4,6 +4,7 @@ import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -30,19 +31,31 @@ public abstract class AbstractClock implements Clock {
     /**
      * Events.
      */
-    private ClockEvent events;
+    private final ClockEventQueue events;
 
     /**
-     * Constructor.
+     * Tick of the next event.
+     * Cached, so that ticks without events just need to compare this tick.
+     */
+    private volatile long nextEventTick = Long.MAX_VALUE;
+
+    /**
+     * Constructor using a {@link LinkedClockEventQueue}.
+     * For the few events of the emulated machines, the list is still the fastest implementation.
      */
     protected AbstractClock() {
-        events = new ClockEvent("End") {
-            @Override
-            public void execute(long tick) {
-                throw new IllegalStateException("End marker event may never be executed.");
-            }
-        };
-        events.tick = Long.MAX_VALUE;
+        this(new LinkedClockEventQueue());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events
+     *         queue for clock events
+     * @require events != null
+     */
+    protected AbstractClock(@Nonnull ClockEventQueue events) {
+        this.events = events;
     }
 
     /**
@@ -173,37 +186,18 @@ public abstract class AbstractClock implements Clock {
 //      _logger.debug("Add event {} at {}.", newEvent, tick);
 //    }
 
-        newEvent.tick = tick;
-
-        var nextEvent = events;
-        while (tick > nextEvent.tick) {
-            nextEvent = nextEvent.next;
-            // search further
-        }
-
-        if (nextEvent == events) {
-            events = newEvent;
-        } else {
-            var previousEvent = nextEvent.previous;
-            previousEvent.next = newEvent;
-            newEvent.previous = previousEvent;
+        events.add(tick, newEvent);
+        if (tick < nextEventTick) {
+            nextEventTick = tick;
         }
-        newEvent.next = nextEvent;
-        nextEvent.previous = newEvent;
     }
 
     @Override
     public void updateClockEvent(final long tick, final @Nonnull ClockEvent eventToUpdate) {
         assert tick > getTick() : "tick > getTick()";
 
-        if (tick == eventToUpdate.tick) {
-            // Nothing to do -> Return early.
-            return;
-        }
-
-        // TODO mh: check, if events needs to be moved. otherwise exit early.
-        removeClockEvent(eventToUpdate);
-        addClockEvent(tick, eventToUpdate);
+        events.update(tick, eventToUpdate);
+        nextEventTick = events.peek().tick;
     }
 
     @Override
@@ -212,42 +206,81 @@ public abstract class AbstractClock implements Clock {
 //      _logger.debug("Remove event {}.", event);
 //    }
 
-        var previousEvent = oldEvent.previous;
-        var nextEvent = oldEvent.next;
+        events.remove(oldEvent);
+        nextEventTick = events.peek().tick;
+    }
+
+    @Override
+    public final void setTick(long tick) {
+        assert tick >= getTick() : "Precondition: tick >= getTick()";
+        assert !isStarted() : "Precondition: !isStarted()";
 
-        if (oldEvent == events) {
-            events = nextEvent;
-        } else if (previousEvent != null) {
-            previousEvent.next = nextEvent;
+        doSetTick(tick);
+    }
+
+    /**
+     * Set current tick.
+     * Implementations have to {@link #postponeClockEvents(long) postpone} the pending events.
+     *
+     * @param tick
+     *         tick
+     */
+    protected abstract void doSetTick(long tick);
+
+    /**
+     * Postpone all pending events by the given number of ticks.
+     *
+     * @param ticks
+     *         number of ticks
+     * @require ticks >= 0
+     */
+    protected final void postponeClockEvents(long ticks) {
+        assert ticks >= 0 : "Precondition: ticks >= 0";
+
+        var pending = new ArrayList<ClockEvent>();
+        for (var event = events.peek(); event.tick != Long.MAX_VALUE; event = events.peek()) {
+            events.remove(event);
+            pending.add(event);
         }
-        if (nextEvent != null) {
-            nextEvent.previous = previousEvent;
+        // Add in reverse order, because events get added before events with the same tick.
+        for (var event : pending.reversed()) {
+            events.add(event.tick + ticks, event);
         }
+        nextEventTick = events.peek().tick;
     }
 
     /**
      * Next event that gets executed.
      */
     final ClockEvent getNextEvent() {
-        return events;
+        return events.peek();
+    }
+
+    @Override
+    public final long getNextEventTick() {
+        return nextEventTick;
     }
 
     /**
      * Execute current events, if any.
+     * Overdue events, e.g. added by another thread for a tick that had already started, are executed first.
+     * So they are executed late instead of never.
      *
      * @param tick
      *         current clock tick
      */
     protected void executeEvents(final long tick) {
-        for (var event = events; event.tick == tick; event = events) {
-            // Remove it.
-            events = event.next;
-
+        for (var event = events.peek(); event.tick < tick; event = events.peek()) {
+            events.remove(event);
+            event.execute(tick);
+        }
+        for (var event = events.poll(tick); event != null; event = events.poll(tick)) {
             // Execute it.
 //      if (_logger.isDebugEnabled()) {
 //        _logger.debug("Execute event {} at {}.", event, tick);
 //      }
             event.execute(tick);
         }
+        nextEventTick = events.peek().tick;
     }
 }
@@ -1,5 +1,6 @@
 package de.heiden.jem.components.clock;
 
+import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,13 +19,34 @@ public abstract class AbstractSimpleClock extends AbstractClock {
      */
     private long tick = -1;
 
+    /**
+     * Constructor using a {@link LinkedClockEventQueue}.
+     */
+    protected AbstractSimpleClock() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events
+     *         queue for clock events
+     * @require events != null
+     */
+    protected AbstractSimpleClock(@Nonnull ClockEventQueue events) {
+        super(events);
+    }
+
     /**
      * Start a new tick.
      */
     protected final void startTick() {
         // First: Increment tick.
-        // Second: Execute events.
-        executeEvents(++tick);
+        // Second: Execute events, if any.
+        // Events which are overdue, because they have been added for a tick that had already started, are due too.
+        if (++tick >= getNextEventTick()) {
+            executeEvents(tick);
+        }
         // Third: Execute components: Done by the caller.
     }
 
@@ -32,4 +54,10 @@ public abstract class AbstractSimpleClock extends AbstractClock {
     public long getTick() {
         return tick;
     }
+
+    @Override
+    protected void doSetTick(long tick) {
+        postponeClockEvents(tick - this.tick);
+        this.tick = tick;
+    }
 }
@@ -86,6 +86,12 @@ public interface Clock extends AutoCloseable {
      */
     void removeClockEvent(@Nonnull ClockEvent event);
 
+    /**
+     * Tick of the next event.
+     * {@link Long#MAX_VALUE}, if there is no event.
+     */
+    long getNextEventTick();
+
     /**
      * Get current tick.
      * Avoid usage of this method for performance reasons, if current tick is available as a parameter.
@@ -93,4 +99,16 @@ public interface Clock extends AutoCloseable {
      * @ensure result >= 0
      */
     long getTick();
+
+    /**
+     * Set current tick, e.g. to continue from a snapshot.
+     * The clock continues with the tick after the given tick.
+     * All pending events are postponed by the same number of ticks.
+     *
+     * @param tick
+     *         tick
+     * @require tick >= getTick()
+     * @require !isStarted()
+     */
+    void setTick(long tick);
 }
@@ -29,6 +29,12 @@ public abstract class ClockEvent {
      */
     ClockEvent next;
 
+    /**
+     * Index of clock event in a heap, -1 if not in a heap.
+     * Used for efficient heap implementation in clocks.
+     */
+    int index = -1;
+
     /**
      * Constructor.
      */
@@ -36,6 +42,14 @@ public abstract class ClockEvent {
         this.name = name;
     }
 
+    /**
+     * Tick the event has been scheduled for the last time.
+     * The event is pending, if it has not been executed or removed since then.
+     */
+    public final long getTick() {
+        return tick;
+    }
+
     /**
      * Execute event.
      */
@@ -0,0 +1,68 @@
+package de.heiden.jem.components.clock;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Queue of {@link ClockEvent}s ordered by their tick.
+ * Implementations use the package visible fields of {@link ClockEvent} for their internal data structures,
+ * so an event may be registered in at most one queue at a time.
+ */
+public interface ClockEventQueue {
+    /**
+     * Add a new event.
+     *
+     * @param tick
+     *         tick to execute event at.
+     * @param event
+     *         event to add.
+     * @require event != null
+     */
+    void add(long tick, @Nonnull ClockEvent event);
+
+    /**
+     * Set tick to execute an existing event at.
+     *
+     * @param tick
+     *         tick to execute event at.
+     * @param event
+     *         event.
+     * @require event != null
+     */
+    default void update(long tick, @Nonnull ClockEvent event) {
+        if (tick == event.tick) {
+            // Nothing to do -> Return early.
+            return;
+        }
+
+        remove(event);
+        add(tick, event);
+    }
+
+    /**
+     * Remove event.
+     * Events which are not registered are ignored.
+     *
+     * @param event
+     *         event to remove
+     * @require event != null
+     */
+    void remove(@Nonnull ClockEvent event);
+
+    /**
+     * Next event that gets executed.
+     * If there is no event, an end marker event with tick {@link Long#MAX_VALUE} is returned.
+     *
+     * @ensure result != null
+     */
+    @Nonnull ClockEvent peek();
+
+    /**
+     * Remove and return the next event, if it is due at the given tick.
+     * Has to be called with ascending ticks.
+     *
+     * @param tick
+     *         current clock tick
+     * @return Due event or null, if there is no more event for the given tick.
+     */
+    ClockEvent poll(long tick);
+}
@@ -0,0 +1,87 @@
+package de.heiden.jem.components.clock;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * {@link ClockEventQueue} implemented as a sorted doubly linked list.
+ * Adding an event is O(n), but for just a few events this is the fastest implementation.
+ */
+public final class LinkedClockEventQueue implements ClockEventQueue {
+    /**
+     * Events.
+     * Always contains the end marker event as the last event.
+     */
+    private ClockEvent events;
+
+    /**
+     * Constructor.
+     */
+    public LinkedClockEventQueue() {
+        events = new ClockEvent("End") {
+            @Override
+            public void execute(long tick) {
+                throw new IllegalStateException("End marker event may never be executed.");
+            }
+        };
+        events.tick = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void add(final long tick, final @Nonnull ClockEvent newEvent) {
+        newEvent.tick = tick;
+
+        var nextEvent = events;
+        while (tick > nextEvent.tick) {
+            nextEvent = nextEvent.next;
+            // search further
+        }
+
+        if (nextEvent == events) {
+            events = newEvent;
+            newEvent.previous = null;
+        } else {
+            var previousEvent = nextEvent.previous;
+            previousEvent.next = newEvent;
+            newEvent.previous = previousEvent;
+        }
+        newEvent.next = nextEvent;
+        nextEvent.previous = newEvent;
+    }
+
+    @Override
+    public void remove(final @Nonnull ClockEvent oldEvent) {
+        var previousEvent = oldEvent.previous;
+        var nextEvent = oldEvent.next;
+
+        if (oldEvent == events) {
+            events = nextEvent;
+        } else if (previousEvent != null) {
+            previousEvent.next = nextEvent;
+        } else {
+            // Not registered.
+            return;
+        }
+        nextEvent.previous = previousEvent;
+        oldEvent.previous = null;
+        oldEvent.next = null;
+    }
+
+    @Override
+    public @Nonnull ClockEvent peek() {
+        return events;
+    }
+
+    @Override
+    public ClockEvent poll(final long tick) {
+        var event = events;
+        if (event.tick != tick) {
+            return null;
+        }
+
+        // Remove it.
+        events = event.next;
+        events.previous = null;
+        event.next = null;
+        return event;
+    }
+}
@@ -0,0 +1,109 @@
+package de.heiden.jem.components.clock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of pacing deviations, e.g. of {@link RealTimeSlowDown}.
+ * Logarithmic buckets: Bucket 0 counts deviations below 1 µs,
+ * bucket i counts deviations from 2^(i-1) µs up to 2^i µs (exclusive), the last bucket counts all larger deviations.
+ * May be read by any thread while being recorded.
+ */
+public final class PacingHistogram {
+    /**
+     * Number of buckets.
+     */
+    public static final int BUCKETS = 32;
+
+    /**
+     * Counts per bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Record a deviation.
+     *
+     * @param nanos
+     *         deviation in ns
+     * @require nanos >= 0
+     */
+    public void record(long nanos) {
+        assert nanos >= 0 : "Precondition: nanos >= 0";
+
+        counts.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Bucket for a deviation.
+     *
+     * @param nanos
+     *         deviation in ns
+     */
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    /**
+     * Exclusive upper bound of a bucket in µs. {@link Long#MAX_VALUE} for the last bucket.
+     *
+     * @param bucket
+     *         bucket
+     */
+    public static long upperBoundMicros(int bucket) {
+        return bucket < BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+    }
+
+    /**
+     * Count of a bucket.
+     *
+     * @param bucket
+     *         bucket
+     */
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Total count of all buckets.
+     */
+    public long getCount() {
+        long result = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            result += counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Reset all counts.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Non-empty buckets, e.g. "<1µs: 3, <2µs: 10, <4µs: 1".
+     */
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            if (!result.isEmpty()) {
+                result.append(", ");
+            }
+            if (i < BUCKETS - 1) {
+                result.append("<").append(upperBoundMicros(i)).append("µs: ");
+            } else {
+                result.append(">=").append(upperBoundMicros(i - 1)).append("µs: ");
+            }
+            result.append(count);
+        }
+        return result.toString();
+    }
+}
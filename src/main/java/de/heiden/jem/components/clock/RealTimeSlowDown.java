@@ -4,10 +4,30 @@ import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.BooleanSupplier;
+
 /**
- * Slow down the clock to real time.
+ * Slow down the clock to real time or a multiple of it.
+ * The speed may be changed at any time from any thread, it gets effective with the next adjustment.
+ * <p>
+ * The target time of each adjustment is computed from the tick, so rounding errors do not accumulate.
+ * If the emulation is too slow, the missing time is not caught up later.
+ * <p>
+ * Adjustments take place at the multiples of the period.
+ * So with the ticks per frame as period, they take place at the start of each frame.
  */
 public class RealTimeSlowDown extends ClockEvent {
+    /**
+     * Speed for running as fast as possible.
+     */
+    public static final double WARP = Double.POSITIVE_INFINITY;
+
+    /**
+     * Precise mode: Remaining time (ns) to spin wait instead of parking.
+     * Covers the typical inaccuracy of parking.
+     */
+    private static final long SPIN_NANOS = 250_000;
+
     /**
      * Logger.
      */
@@ -22,42 +42,71 @@ public class RealTimeSlowDown extends ClockEvent {
      */
     private final long freq;
     /**
-     * How often per second should the clock speed be adjusted? (minus 1).
+     * Number of ticks between adjustments.
      */
-    private final int div;
+    private final long period;
     /**
-     * Number of ticks per div.
+     * Nanoseconds per tick in real time.
      */
-    private final long incrementFreq;
+    private final double nanosPerTick;
     /**
-     * Number of ticks for the last div to avoid rounding errors.
+     * Precise mode: Park and spin wait instead of sleeping with 1 ms resolution?
      */
-    private final long incrementFreq0;
+    private final boolean precise;
     /**
-     * Nanoseconds per div.
+     * Source of the real time.
      */
-    private final long incrementTime;
+    private final TimeSource time;
+
     /**
-     * Nanoseconds for the last div to avoid rounding errors.
+     * Tick of time base.
      */
-    private final long incrementTime0;
+    private long baseTick;
+    /**
+     * Timestamp (ns) of time base.
+     */
+    private long baseTimestamp;
+    /**
+     * Speed of time base. NaN forces a new time base at the first adjustment.
+     */
+    private double baseSpeed = Double.NaN;
 
     /**
      * Timestamp (ns) after the last slow down.
      */
     private long lastTimestamp;
     /**
-     * Timestamp (ns) for the next slow down.
+     * Tick of the start of the current simulated second.
      */
-    private long nextTimestamp;
+    private long secondTick;
     /**
-     * Time (ns) elapsed while processing 1 second (accumulator).
+     * Time (ns) elapsed while processing the current simulated second (accumulator).
      */
     private long elapsed;
+
+    /**
+     * Deviations of the wake-up from the target time.
+     */
+    private final PacingHistogram jitter = new PacingHistogram();
     /**
-     * Counter for divs.
+     * Delays of the emulation behind the target time.
      */
-    private int counter;
+    private final PacingHistogram overruns = new PacingHistogram();
+
+    /**
+     * Speed: 1 = real time, {@link #WARP} = as fast as possible.
+     */
+    private volatile double speed = 1;
+
+    /**
+     * Condition to stop warping, if any.
+     */
+    private volatile BooleanSupplier warpCondition;
+
+    /**
+     * Speed to continue with, when the warp condition holds.
+     */
+    private double speedAfterWarp = 1;
 
     /**
      * Constructor.
@@ -70,85 +119,239 @@ public class RealTimeSlowDown extends ClockEvent {
      *         How often per second should the clock speed be adjusted?
      */
     public RealTimeSlowDown(@Nonnull Clock clock, long freq, int div) {
-        super("Real time slow down");
+        this(clock, freq, freq / div, false);
 
-        assert freq > 0 : "Precondition: freq > 0";
         assert div > 0 : "Precondition: div > 0";
         assert freq / div >= 1000 : "Precondition: freq / div >= 1000: Maximum timer resolution of 1 ms not exceeded.";
+    }
 
-        this.clock = clock;
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock to slow down
+     * @param freq
+     *         Frequency in Hz (clock ticks per second)
+     * @param period
+     *         Number of ticks between adjustments, e.g. the ticks per frame to align them to frames
+     * @param precise
+     *         Precise mode: Park and spin wait instead of sleeping with 1 ms resolution?
+     */
+    public RealTimeSlowDown(@Nonnull Clock clock, long freq, long period, boolean precise) {
+        this(clock, freq, period, precise, TimeSource.SYSTEM);
+    }
 
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock to slow down
+     * @param freq
+     *         Frequency in Hz (clock ticks per second)
+     * @param period
+     *         Number of ticks between adjustments, e.g. the ticks per frame to align them to frames
+     * @param precise
+     *         Precise mode: Park and spin wait instead of sleeping with 1 ms resolution?
+     * @param time
+     *         Source of the real time, usually {@link TimeSource#SYSTEM}
+     */
+    public RealTimeSlowDown(@Nonnull Clock clock, long freq, long period, boolean precise, @Nonnull TimeSource time) {
+        super("Real time slow down");
+
+        assert freq > 0 : "Precondition: freq > 0";
+        assert period > 0 : "Precondition: period > 0";
+
+        this.clock = clock;
         this.freq = freq;
-        this.div = div - 1;
-        incrementFreq = freq / div;
-        incrementFreq0 = freq - (div - 1) * incrementFreq;
-        incrementTime = 1000000000 / div;
-        incrementTime0 = 1000000000 - (div - 1) * incrementTime;
-
-        // Initial clock event
-        this.clock.addClockEvent(0, new ClockEvent("Init real time slow down") {
-            @Override
-            public void execute(long tick) {
-                long now = System.nanoTime();
-                elapsed = 0;
-
-                counter = RealTimeSlowDown.this.div;
-                nextTimestamp = now + incrementTime0;
-                RealTimeSlowDown.this.clock.addClockEvent(incrementFreq0, RealTimeSlowDown.this);
+        this.period = period;
+        this.nanosPerTick = 1e9 / freq;
+        this.precise = precise;
+        this.time = time;
 
-                lastTimestamp = now;
+        this.clock.addClockEvent(nextAdjustment(clock.getTick()), this);
+    }
+
+    /**
+     * Tick of the next adjustment: The next multiple of the period.
+     *
+     * @param tick
+     *         current tick
+     */
+    private long nextAdjustment(long tick) {
+        return (Math.floorDiv(tick, period) + 1) * period;
+    }
+
+    /**
+     * Speed: 1 = real time, {@link #WARP} = as fast as possible.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Set speed. Cancels {@link #warpUntil(BooleanSupplier) warping}.
+     *
+     * @param speed
+     *         Speed: 1 = real time, 2 = twice as fast, {@link #WARP} = as fast as possible
+     * @require speed > 0
+     */
+    public synchronized void setSpeed(double speed) {
+        assert speed > 0 : "Precondition: speed > 0";
+
+        warpCondition = null;
+        this.speed = speed;
+    }
+
+    /**
+     * Run as fast as possible, until the condition holds. Then continue with the current speed.
+     * The condition is evaluated by the clock at each adjustment.
+     *
+     * @param condition
+     *         Condition to stop warping
+     */
+    public synchronized void warpUntil(@Nonnull BooleanSupplier condition) {
+        if (warpCondition == null) {
+            speedAfterWarp = speed;
+        }
+        warpCondition = condition;
+        speed = WARP;
+    }
+
+    /**
+     * Deviations of the wake-ups from the target times.
+     */
+    public PacingHistogram getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Delays of the emulation behind the target times, if the emulation is too slow.
+     */
+    public PacingHistogram getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Stop warping, if the warp condition holds.
+     */
+    private void checkWarpCondition() {
+        var condition = warpCondition;
+        if (condition != null && condition.getAsBoolean()) {
+            synchronized (this) {
+                if (warpCondition == condition) {
+                    logger.info("Warp condition reached, continue with speed {}.", speedAfterWarp);
+                    warpCondition = null;
+                    speed = speedAfterWarp;
+                }
             }
-        });
+        }
     }
 
     @Override
     public void execute(long tick) {
+        checkWarpCondition();
+        final double speed = this.speed;
+
         // Save the current timestamp as the end of the last processing cycle
-        long now = System.nanoTime();
+        long now = time.nanoTime();
+        // Re-register for the next adjustment.
+        clock.addClockEvent(nextAdjustment(tick), this);
+
+        if (speed != baseSpeed) {
+            // Start: Init measurement.
+            if (Double.isNaN(baseSpeed)) {
+                lastTimestamp = now;
+                secondTick = tick;
+            }
+            // Start or speed changed: New time base.
+            newTimeBase(tick, now, speed);
+        }
+
         // Compute the duration of the last processing cycle and add it to the duration of processing 1 second
         elapsed += now - lastTimestamp;
-
-        long next = nextTimestamp;
-        long nextTick = tick;
-        if (counter == 0) {
+        if (tick - secondTick >= freq) {
             if (logger.isInfoEnabled()) {
                 logger.info("1 simulated second took {} ms", elapsed / 1000000);
             }
             elapsed = 0;
-
-            counter = div;
-            next += incrementTime0;
-            nextTick += incrementFreq0;
-        } else {
-            counter--;
-            next += incrementTime;
-            nextTick += incrementFreq;
+            secondTick = tick;
         }
-        // If emulation is too slow, do not accumulate missing time.
-        nextTimestamp = next < now ? now : next;
-        // Re-register for the next tick.
-        clock.addClockEvent(nextTick, this);
+
+        long target = baseTimestamp + (long) ((tick - baseTick) * nanosPerTick / speed);
 
         // Debug the slow-down.
         if (logger.isDebugEnabled()) {
             logger.debug(String.format("tick      : %,11d", tick));
-            logger.debug(String.format("next tick : %,11d", nextTick));
             logger.debug(String.format("elapsed   : %,11d ns", now - lastTimestamp));
-            logger.debug(String.format("remainder : %,11d ns", nextTimestamp - now));
-            logger.debug(String.format("real time : %,11d ns", incrementTime));
+            logger.debug(String.format("remainder : %,11d ns", target - now));
         }
 
-        // Wait until next (max. 1 ms precision).
-        for (long remainder; (remainder = (next - now) / 1000000) > 0; now = System.nanoTime()) {
+        if (target <= now) {
+            // Emulation is too slow or warping: Do not accumulate missing time.
+            if (target < now && speed != WARP) {
+                overruns.record(now - target);
+            }
+            newTimeBase(tick, now, speed);
+        } else {
+            now = waitUntil(target);
+            // Without precise mode, the wake-up may be early.
+            jitter.record(Math.abs(now - target));
+        }
+
+        // Save the current timestamp as the start of the next the processing cycle.
+        lastTimestamp = now;
+    }
+
+    /**
+     * Start a new time base.
+     *
+     * @param tick
+     *         current tick
+     * @param now
+     *         current timestamp (ns)
+     * @param speed
+     *         current speed
+     */
+    private void newTimeBase(long tick, long now, double speed) {
+        baseTick = tick;
+        baseTimestamp = now;
+        baseSpeed = speed;
+    }
+
+    /**
+     * Wait until the target time.
+     *
+     * @param target
+     *         target timestamp (ns)
+     * @return current timestamp (ns)
+     */
+    private long waitUntil(long target) {
+        long now = time.nanoTime();
+        if (precise) {
+            // Park coarsely, then spin for the remainder.
+            for (long remainder; (remainder = target - now) > 0; now = time.nanoTime()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Stop slowing down if the thread has been interrupted.
+                    break;
+                }
+                if (remainder > SPIN_NANOS) {
+                    time.parkNanos(this, remainder - SPIN_NANOS);
+                } else {
+                    time.onSpinWait();
+                }
+            }
+            return now;
+        }
+
+        // Wait until target (max. 1 ms precision).
+        for (long remainder; (remainder = (target - now) / 1000000) > 0; now = time.nanoTime()) {
             try {
-                Thread.sleep(remainder);
+                time.sleep(remainder);
             } catch (InterruptedException e) {
                 // Stop slowing down if the thread has been interrupted.
                 break;
             }
         }
-
-        // Save the current timestamp as the start of the next the processing cycle.
-        lastTimestamp = now;
+        return now;
     }
 }
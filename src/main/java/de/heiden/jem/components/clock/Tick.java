@@ -1,6 +1,7 @@
 package de.heiden.jem.components.clock;
 
 import org.serialthreads.Interrupt;
+import org.serialthreads.Interruptible;
 
 /**
  * Clock tick.
@@ -12,4 +13,22 @@ public interface Tick {
      */
     @Interrupt
     void waitForTick();
+
+    /**
+     * Wait for the given number of ticks.
+     * Called by clocked components which are idle for more than one tick.
+     * Clocks may override this to resume the component just at the last of these ticks.
+     *
+     * @param ticks
+     *         number of ticks to wait for
+     * @require ticks > 0
+     */
+    @Interruptible
+    default void waitForTicks(int ticks) {
+        assert ticks > 0 : "Precondition: ticks > 0";
+
+        for (int i = 0; i < ticks; i++) {
+            waitForTick();
+        }
+    }
 }
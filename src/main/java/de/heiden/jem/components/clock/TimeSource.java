@@ -0,0 +1,63 @@
+package de.heiden.jem.components.clock;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Real time and the means to wait for it, as used by {@link RealTimeSlowDown}.
+ * Replaceable, so that tests can simulate the time instead of depending on the wall clock.
+ */
+public interface TimeSource {
+    /**
+     * The system time.
+     */
+    TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+
+        @Override
+        public void parkNanos(Object blocker, long nanos) {
+            LockSupport.parkNanos(blocker, nanos);
+        }
+
+        @Override
+        public void onSpinWait() {
+            Thread.onSpinWait();
+        }
+    };
+
+    /**
+     * Current timestamp (ns), see {@link System#nanoTime()}.
+     */
+    long nanoTime();
+
+    /**
+     * Sleep, see {@link Thread#sleep(long)}.
+     *
+     * @param millis
+     *         Time to sleep (ms).
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Park the current thread, see {@link LockSupport#parkNanos(Object, long)}.
+     * May return early.
+     *
+     * @param blocker
+     *         Object responsible for parking.
+     * @param nanos
+     *         Max time to park (ns).
+     */
+    void parkNanos(Object blocker, long nanos);
+
+    /**
+     * Hint for spin waits, see {@link Thread#onSpinWait()}.
+     */
+    void onSpinWait();
+}
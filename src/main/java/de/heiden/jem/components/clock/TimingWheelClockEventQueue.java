@@ -0,0 +1,305 @@
+package de.heiden.jem.components.clock;
+
+import jakarta.annotation.Nonnull;
+
+import static java.lang.Long.numberOfTrailingZeros;
+import static java.util.Arrays.copyOf;
+
+/**
+ * {@link ClockEventQueue} implemented as a timing wheel for the near future and a binary heap for the far future.
+ * <p>
+ * The wheel has one slot per tick for the next {@link #WHEEL_SIZE} ticks.
+ * Each slot is a doubly linked list of all events of that tick, so adding and removing these events is O(1).
+ * All other events are kept in the heap (O(log n)) and are moved to the wheel,
+ * as soon as their tick enters the range of the wheel.
+ * The heap takes the role of the coarser levels of a hierarchical timing wheel,
+ * because events that far in the future are rare (e.g. real time slow down, CIA timers with big latches).
+ */
+public final class TimingWheelClockEventQueue implements ClockEventQueue {
+    /**
+     * Number of bits of the wheel size.
+     */
+    private static final int WHEEL_BITS = 10;
+
+    /**
+     * Number of ticks covered by the wheel.
+     */
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    /**
+     * Mask for computing the slot of a tick.
+     */
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * Slots of the wheel: Heads of the lists of events per tick.
+     */
+    private final ClockEvent[] slots = new ClockEvent[WHEEL_SIZE];
+
+    /**
+     * Bitmap of non-empty slots for fast search of the next event.
+     */
+    private final long[] occupied = new long[WHEEL_SIZE >> 6];
+
+    /**
+     * Number of events in the wheel.
+     */
+    private int wheelSize = 0;
+
+    /**
+     * Current tick: First tick covered by the wheel.
+     */
+    private long base = 0;
+
+    /**
+     * Binary min heap of events for ticks after the range of the wheel.
+     */
+    private ClockEvent[] heap = new ClockEvent[16];
+
+    /**
+     * Number of events in the heap.
+     */
+    private int heapSize = 0;
+
+    /**
+     * First tick at which the first event of the heap has to be moved to the wheel.
+     * {@link Long#MAX_VALUE}, if the heap is empty.
+     */
+    private long migrationTick = Long.MAX_VALUE;
+
+    /**
+     * End marker.
+     */
+    private final ClockEvent end;
+
+    /**
+     * Constructor.
+     */
+    public TimingWheelClockEventQueue() {
+        end = new ClockEvent("End") {
+            @Override
+            public void execute(long tick) {
+                throw new IllegalStateException("End marker event may never be executed.");
+            }
+        };
+        end.tick = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void add(final long tick, final @Nonnull ClockEvent newEvent) {
+        assert tick >= base : "Precondition: tick >= base";
+
+        newEvent.tick = tick;
+        if (tick - base < WHEEL_SIZE) {
+            addToWheel(newEvent);
+        } else {
+            addToHeap(newEvent);
+        }
+    }
+
+    @Override
+    public void remove(final @Nonnull ClockEvent oldEvent) {
+        if (oldEvent.index >= 0) {
+            removeFromHeap(oldEvent);
+        } else if (oldEvent.previous != null || slots[slot(oldEvent.tick)] == oldEvent) {
+            removeFromWheel(oldEvent);
+        }
+        // Otherwise the event is not registered.
+    }
+
+    @Override
+    public @Nonnull ClockEvent peek() {
+        if (wheelSize > 0) {
+            return slots[nextSlot()];
+        }
+        if (heapSize > 0) {
+            return heap[0];
+        }
+        return end;
+    }
+
+    @Override
+    public ClockEvent poll(final long tick) {
+        if (tick != base) {
+            base = tick;
+            if (tick >= migrationTick) {
+                migrate();
+            }
+        }
+
+        var event = slots[slot(tick)];
+        if (event == null || event.tick != tick) {
+            return null;
+        }
+
+        removeFromWheel(event);
+        return event;
+    }
+
+    //
+    // Wheel
+    //
+
+    /**
+     * Slot for the tick.
+     */
+    private static int slot(long tick) {
+        return (int) tick & WHEEL_MASK;
+    }
+
+    /**
+     * Move events of the heap to the wheel, which entered the range of the wheel.
+     */
+    private void migrate() {
+        while (heapSize > 0 && heap[0].tick - base < WHEEL_SIZE) {
+            var event = heap[0];
+            removeFromHeap(event);
+            addToWheel(event);
+        }
+    }
+
+    /**
+     * Add event to the head of the list of its slot.
+     */
+    private void addToWheel(ClockEvent event) {
+        int slot = slot(event.tick);
+        var head = slots[slot];
+        event.previous = null;
+        event.next = head;
+        if (head != null) {
+            head.previous = event;
+        } else {
+            occupied[slot >> 6] |= 1L << slot;
+        }
+        slots[slot] = event;
+        wheelSize++;
+    }
+
+    /**
+     * Remove event from the list of its slot.
+     */
+    private void removeFromWheel(ClockEvent event) {
+        var previous = event.previous;
+        var next = event.next;
+        if (previous != null) {
+            previous.next = next;
+        } else {
+            int slot = slot(event.tick);
+            slots[slot] = next;
+            if (next == null) {
+                occupied[slot >> 6] &= ~(1L << slot);
+            }
+        }
+        if (next != null) {
+            next.previous = previous;
+        }
+        event.previous = null;
+        event.next = null;
+        wheelSize--;
+    }
+
+    /**
+     * Search the first non-empty slot, starting at the slot of the current tick.
+     *
+     * @require wheelSize > 0
+     */
+    private int nextSlot() {
+        int start = slot(base);
+        int word = start >> 6;
+        // Ignore slots before the start slot in the first word.
+        long bits = occupied[word] & (-1L << start);
+        for (int i = 0; i <= occupied.length; i++) {
+            if (bits != 0) {
+                return (word << 6) + numberOfTrailingZeros(bits);
+            }
+            word = (word + 1) % occupied.length;
+            bits = occupied[word];
+        }
+
+        throw new IllegalStateException("Wheel is empty.");
+    }
+
+    //
+    // Heap
+    //
+
+    /**
+     * Add event to the heap.
+     */
+    private void addToHeap(ClockEvent event) {
+        if (heapSize == heap.length) {
+            heap = copyOf(heap, heapSize * 2);
+        }
+        siftUp(heapSize++, event);
+        updateMigrationTick();
+    }
+
+    /**
+     * Remove event from the heap.
+     */
+    private void removeFromHeap(ClockEvent event) {
+        int index = event.index;
+        event.index = -1;
+
+        var last = heap[--heapSize];
+        heap[heapSize] = null;
+        if (last != event) {
+            siftDown(index, last);
+            if (heap[index] == last) {
+                siftUp(index, last);
+            }
+        }
+        updateMigrationTick();
+    }
+
+    /**
+     * Update {@link #migrationTick} after the first event of the heap may have changed.
+     */
+    private void updateMigrationTick() {
+        migrationTick = heapSize > 0 ? heap[0].tick - WHEEL_SIZE + 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Move event up from index to its position in the heap.
+     */
+    private void siftUp(int index, ClockEvent event) {
+        long tick = event.tick;
+        while (index > 0) {
+            int parentIndex = (index - 1) >> 1;
+            var parent = heap[parentIndex];
+            if (tick >= parent.tick) {
+                break;
+            }
+            heap[index] = parent;
+            parent.index = index;
+            index = parentIndex;
+        }
+        heap[index] = event;
+        event.index = index;
+    }
+
+    /**
+     * Move event down from index to its position in the heap.
+     */
+    private void siftDown(int index, ClockEvent event) {
+        long tick = event.tick;
+        int half = heapSize >> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            var child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < heapSize && heap[rightIndex].tick < child.tick) {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+            if (tick <= child.tick) {
+                break;
+            }
+            heap[index] = child;
+            child.index = index;
+            index = childIndex;
+        }
+        heap[index] = event;
+        event.index = index;
+    }
+}
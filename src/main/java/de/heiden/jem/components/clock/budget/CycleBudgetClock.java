@@ -0,0 +1,192 @@
+package de.heiden.jem.components.clock.budget;
+
+import de.heiden.jem.components.ManualAbortTick;
+import de.heiden.jem.components.clock.AbstractClock;
+import de.heiden.jem.components.clock.ClockEventQueue;
+import de.heiden.jem.components.clock.ClockedComponent;
+import de.heiden.jem.components.clock.ManualAbort;
+import de.heiden.jem.components.clock.Tick;
+import de.heiden.jem.components.clock.threads.SuspendEvent;
+import jakarta.annotation.Nonnull;
+
+/**
+ * Clock for exactly one clocked component, e.g. the cpu together with a lazy vic.
+ * <p>
+ * The component runs in straight-line batches in its own thread:
+ * {@link Tick#waitForTick()} just counts the cycle and executes the events, if the next event tick has been reached.
+ * So there are no context switches at all, except when suspending a {@link #run(int) limited run}.
+ * All devices are accessed by the component thread, so they always see the exact current tick.
+ */
+public final class CycleBudgetClock extends AbstractClock {
+    /**
+     * Monitor for suspending execution.
+     */
+    private final Object monitor = new Object();
+
+    /**
+     * Event for suspending execution.
+     */
+    private final SuspendEvent suspendEvent = new SuspendEvent(monitor);
+
+    /**
+     * Current tick.
+     * Start at tick -1, because the first action when running is to increment the tick.
+     */
+    private long tick = -1;
+
+    /**
+     * Thread executing the component.
+     */
+    private Thread thread;
+
+    /**
+     * Exception which terminated the component, if any.
+     */
+    private volatile Exception failure;
+
+    /**
+     * Constructor using a {@link de.heiden.jem.components.clock.LinkedClockEventQueue}.
+     */
+    public CycleBudgetClock() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events
+     *         queue for clock events
+     * @require events != null
+     */
+    public CycleBudgetClock(@Nonnull ClockEventQueue events) {
+        super(events);
+    }
+
+    @Override
+    protected void doInit() {
+        var components = clockedComponents();
+        if (components.length != 1) {
+            throw new IllegalStateException(
+                    "Cycle budget clock supports exactly one clocked component, but got " + components.length + ".");
+        }
+        var component = components[0];
+        component.setTick(new BudgetTick());
+
+        // Suspend execution at the start of the first tick.
+        addClockEvent(tick + 1, suspendEvent);
+
+        thread = Thread.ofPlatform().daemon().name(component.getName()).start(() -> execute(component));
+
+        // Wait until the thread is at the start of the first tick.
+        suspendEvent.waitForSuspend();
+    }
+
+    /**
+     * Execution of the component.
+     */
+    private void execute(ClockedComponent component) {
+        try {
+            startTick();
+            component.run();
+        } catch (ManualAbort e) {
+            // Ignore and let the thread terminate.
+            logger.debug("Component {} terminated.", component.getName());
+        } catch (Exception e) {
+            logger.error("Component failed.", e);
+            failure = e;
+        } finally {
+            // Do not let limited runs wait for the terminated thread.
+            suspendEvent.terminate();
+        }
+    }
+
+    /**
+     * Exception which terminated the component, if any.
+     * After a failure, {@link #run(int) limited runs} return immediately.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    protected void doRun(int ticks) {
+        assert ticks >= 0 : "Precondition: ticks >= 0";
+
+        addClockEvent(getTick() + ticks, suspendEvent);
+        doRun();
+    }
+
+    @Override
+    protected void doRun() {
+        suspendEvent.resume();
+        suspendEvent.waitForSuspend();
+    }
+
+    @Override
+    protected void doClose() {
+        // Ensure that the thread does not run into the ticks again.
+        for (var component : clockedComponents()) {
+            component.setTick(new ManualAbortTick());
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Start a new tick.
+     */
+    private void startTick() {
+        // First: Increment tick.
+        // Second: Execute events, if any, including overdue ones.
+        if (++tick >= getNextEventTick()) {
+            executeEvents(tick);
+        }
+        // Third: Execute component: Done by the caller.
+    }
+
+    /**
+     * Skip the given number of ticks, just executing the events in between.
+     *
+     * @param ticks
+     *         number of ticks
+     * @require ticks > 0
+     */
+    private void skipTicks(int ticks) {
+        final long target = tick + ticks;
+        for (long next; (next = getNextEventTick()) <= target; ) {
+            // Overdue events are executed at the current tick.
+            tick = Math.max(tick, next);
+            executeEvents(tick);
+        }
+        tick = target;
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    protected void doSetTick(long tick) {
+        postponeClockEvents(tick - this.tick);
+        this.tick = tick;
+    }
+
+    /**
+     * Tick counting cycles on the component thread.
+     */
+    private final class BudgetTick implements Tick {
+        @Override
+        public void waitForTick() {
+            startTick();
+        }
+
+        @Override
+        public void waitForTicks(int ticks) {
+            assert ticks > 0 : "Precondition: ticks > 0";
+
+            skipTicks(ticks);
+        }
+    }
+}
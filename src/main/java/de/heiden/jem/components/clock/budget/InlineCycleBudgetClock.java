@@ -0,0 +1,188 @@
+package de.heiden.jem.components.clock.budget;
+
+import de.heiden.jem.components.ManualAbortTick;
+import de.heiden.jem.components.clock.AbstractClock;
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.components.clock.ClockEventQueue;
+import de.heiden.jem.components.clock.ClockedComponent;
+import de.heiden.jem.components.clock.Tick;
+import jakarta.annotation.Nonnull;
+import jdk.internal.vm.Continuation;
+import jdk.internal.vm.ContinuationScope;
+
+/**
+ * Clock for exactly one clocked component, e.g. the cpu together with a lazy vic,
+ * executed by the thread {@link #run() running} the clock.
+ * <p>
+ * Like the {@link CycleBudgetClock}, but without a thread of its own, e.g. to run C64s on the workers of a pool:
+ * {@link Tick#waitForTick()} just counts the cycle and executes the events, if the next event tick has been reached.
+ * The component runs in a {@link Continuation} mounted on the calling thread.
+ * At the end of a {@link #run(int) limited run} the continuation yields, so the call returns to the caller
+ * and the next run, e.g. by another thread of the pool, continues exactly there.
+ * <p>
+ * Needs {@code --add-exports java.base/jdk.internal.vm=ALL-UNNAMED} at compile and at run time.
+ */
+public final class InlineCycleBudgetClock extends AbstractClock {
+    /**
+     * Current tick.
+     * Start at tick -1, because the first action when running is to increment the tick.
+     */
+    private long tick = -1;
+
+    /**
+     * Scope of the continuation.
+     */
+    private final ContinuationScope scope = new ContinuationScope("InlineCycleBudgetClock");
+
+    /**
+     * Event for suspending execution.
+     */
+    private final ClockEvent yieldEvent = new ClockEvent("Yield") {
+        @Override
+        public void execute(long tick) {
+            Continuation.yield(scope);
+        }
+    };
+
+    /**
+     * The clocked component.
+     */
+    private ClockedComponent component;
+
+    /**
+     * Continuation executing the component.
+     */
+    private Continuation continuation;
+
+    /**
+     * Constructor using a {@link de.heiden.jem.components.clock.LinkedClockEventQueue}.
+     */
+    public InlineCycleBudgetClock() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events
+     *         queue for clock events
+     * @require events != null
+     */
+    public InlineCycleBudgetClock(@Nonnull ClockEventQueue events) {
+        super(events);
+    }
+
+    @Override
+    protected void doInit() {
+        var components = clockedComponents();
+        if (components.length != 1) {
+            throw new IllegalStateException(
+                    "Cycle budget clock supports exactly one clocked component, but got " + components.length + ".");
+        }
+        component = components[0];
+        component.setTick(new BudgetTick());
+        continuation = new Continuation(scope, () -> {
+            startTick();
+            component.run();
+        });
+
+        // Suspend execution at the start of the first tick.
+        addClockEvent(tick + 1, yieldEvent);
+        continuation.run();
+    }
+
+    /**
+     * Run the component by the calling thread, until an event closes this clock.
+     * Exceptions of the component are passed to the caller.
+     */
+    @Override
+    protected void doRun() {
+        if (!continuation.isDone()) {
+            continuation.run();
+        }
+    }
+
+    /**
+     * Run the component by the calling thread for the given number of ticks.
+     * Exceptions of the component are passed to the caller.
+     * After the component has terminated, limited runs return immediately.
+     */
+    @Override
+    protected void doRun(int ticks) {
+        assert ticks >= 0 : "Precondition: ticks >= 0";
+
+        if (ticks > 0) {
+            addClockEvent(getTick() + ticks, yieldEvent);
+            doRun();
+        }
+    }
+
+    /**
+     * Let the component abort with its next tick.
+     * Has to be called by the thread running this clock, e.g. by an event, or between two runs.
+     * A suspended component is not resumed, it is just dropped.
+     */
+    @Override
+    protected void doClose() {
+        if (component != null) {
+            component.setTick(new ManualAbortTick());
+        }
+    }
+
+    /**
+     * Start a new tick.
+     */
+    private void startTick() {
+        // First: Increment tick.
+        // Second: Execute events, if any, including overdue ones.
+        if (++tick >= getNextEventTick()) {
+            executeEvents(tick);
+        }
+        // Third: Execute component: Done by the caller.
+    }
+
+    /**
+     * Skip the given number of ticks, just executing the events in between.
+     *
+     * @param ticks
+     *         number of ticks
+     * @require ticks > 0
+     */
+    private void skipTicks(int ticks) {
+        final long target = tick + ticks;
+        for (long next; (next = getNextEventTick()) <= target; ) {
+            // Overdue events are executed at the current tick.
+            tick = Math.max(tick, next);
+            executeEvents(tick);
+        }
+        tick = target;
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    protected void doSetTick(long tick) {
+        postponeClockEvents(tick - this.tick);
+        this.tick = tick;
+    }
+
+    /**
+     * Tick counting cycles on the thread running the clock.
+     */
+    private final class BudgetTick implements Tick {
+        @Override
+        public void waitForTick() {
+            startTick();
+        }
+
+        @Override
+        public void waitForTicks(int ticks) {
+            assert ticks > 0 : "Precondition: ticks > 0";
+
+            skipTicks(ticks);
+        }
+    }
+}
@@ -5,24 +5,47 @@ import de.heiden.jem.components.clock.ClockedComponent;
 import de.heiden.jem.components.clock.Tick;
 import org.serialthreads.Executor;
 import org.serialthreads.Interrupt;
+import org.serialthreads.Interruptible;
 import org.serialthreads.context.ThreadFinishedException;
 
 /**
  * Clock using serial threads.
- * This clock does NOT {@link ClockedComponent#setTick(Tick) set a tick},
- * because {@link Tick#waitForTick()} is never called because it is an {@link Interrupt} method.
+ * {@link Tick#waitForTick()} is never called, because it is an {@link Interrupt} method.
+ * The {@link ClockedComponent#setTick(Tick) ticks set} by this clock just support {@link Tick#waitForTicks(int)}.
  */
 public final class SerialClock extends AbstractSimpleClock {
+    /**
+     * Ticks of the components.
+     */
+    private SerialTick[] ticks;
+
+    @Override
+    protected void doInit() {
+        var components = clockedComponents();
+        ticks = new SerialTick[components.length];
+        for (int i = 0; i < components.length; i++) {
+            ticks[i] = new SerialTick();
+            components[i].setTick(ticks[i]);
+        }
+    }
+
     @Override
     @Executor
     protected void doRun() {
         var components = clockedComponents();
+        var componentTicks = this.ticks;
         try {
             //noinspection InfiniteLoopStatement
             while (true) {
                 startTick();
-                for (var runnable : components) {
-                    runnable.run();
+                for (int i = 0; i < components.length; i++) {
+                    var tick = componentTicks[i];
+                    if (tick.sleep > 0) {
+                        // Component is waiting for more ticks.
+                        tick.sleep--;
+                    } else {
+                        components[i].run();
+                    }
                 }
             }
         } catch (ThreadFinishedException e) {
@@ -36,15 +59,48 @@ public final class SerialClock extends AbstractSimpleClock {
         assert ticks >= 0 : "Precondition: ticks >= 0";
 
         var components = clockedComponents();
+        var componentTicks = this.ticks;
         try {
             for (final long stop = getTick() + ticks; getTick() < stop; ) {
                 startTick();
-                for (var runnable : components) {
-                    runnable.run();
+                for (int i = 0; i < components.length; i++) {
+                    var tick = componentTicks[i];
+                    if (tick.sleep > 0) {
+                        // Component is waiting for more ticks.
+                        tick.sleep--;
+                    } else {
+                        components[i].run();
+                    }
                 }
             }
         } catch (ThreadFinishedException e) {
             // TODO 2009-12-11 mh: should not happen!!!
         }
     }
+
+    /**
+     * Tick supporting {@link #waitForTicks(int)} by skipping the execution of the component.
+     */
+    private static final class SerialTick implements Tick {
+        /**
+         * Number of ticks the component still waits for after the current one.
+         */
+        private int sleep = 0;
+
+        @Override
+        @Interrupt
+        public void waitForTick() {
+            // Never called, because it is an interrupt method.
+        }
+
+        @Override
+        @Interruptible
+        public void waitForTicks(int ticks) {
+            assert ticks > 0 : "Precondition: ticks > 0";
+
+            // Skip the execution of the component for all but the last tick.
+            sleep = ticks - 1;
+            waitForTick();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package de.heiden.jem.components.clock.threads;
 import de.heiden.jem.components.ManualAbortTick;
 import de.heiden.jem.components.clock.AbstractClock;
 import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.components.clock.ClockEventQueue;
 import de.heiden.jem.components.clock.ClockedComponent;
 import de.heiden.jem.components.clock.ManualAbort;
 import de.heiden.jem.components.clock.Tick;
@@ -25,7 +26,7 @@ public abstract class AbstractSynchronizedClock extends AbstractClock {
     private final Collection<Thread> componentThreads = synchronizedCollection(new ArrayList<>());
 
     /**
-     * Monitor for synchronization.
+     * Monitor for suspending execution.
      */
     private final Object monitor = new Object();
 
@@ -40,31 +41,73 @@ public abstract class AbstractSynchronizedClock extends AbstractClock {
      */
     private final AtomicLong tick = new AtomicLong(-1);
 
+    /**
+     * Additions, updates and removals of events.
+     * Submitted lock-free by any thread and applied by the tick manager at the start of the next tick.
+     */
+    private final EventSubmissionQueue submissions = new EventSubmissionQueue();
+
+    /**
+     * Constructor using a {@link de.heiden.jem.components.clock.LinkedClockEventQueue}.
+     */
+    protected AbstractSynchronizedClock() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events
+     *         queue for clock events
+     * @require events != null
+     */
+    protected AbstractSynchronizedClock(@Nonnull ClockEventQueue events) {
+        super(events);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Other threads than the tick manager may submit events for ticks that have already started meanwhile.
+     * These events get executed at the next tick, see {@link #applySubmissions()}.
+     */
     @Override
     public final void addClockEvent(long tick, @Nonnull ClockEvent event) {
-        synchronized (monitor) {
-            super.addClockEvent(tick, event);
-        }
+        submissions.submit(EventSubmissionQueue.ADD, tick, event);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Other threads than the tick manager may submit events for ticks that have already started meanwhile.
+     * These events get executed at the next tick, see {@link #applySubmissions()}.
+     */
     @Override
     public final void updateClockEvent(long tick, @Nonnull ClockEvent event) {
-        synchronized (monitor) {
-            super.updateClockEvent(tick, event);
-        }
+        submissions.submit(EventSubmissionQueue.UPDATE, tick, event);
     }
 
     @Override
     public final void removeClockEvent(@Nonnull ClockEvent event) {
-        synchronized (monitor) {
-            super.removeClockEvent(event);
-        }
+        submissions.submit(EventSubmissionQueue.REMOVE, -1, event);
     }
 
-    @Override
-    protected final void executeEvents(long tick) {
-        synchronized (monitor) {
-            super.executeEvents(tick);
+    /**
+     * Apply all submitted additions, updates and removals of events.
+     * Has to be called by the tick manager only.
+     * <p>
+     * Submissions of other threads may be applied after their tick has already started.
+     * These events are moved to the next tick, so that they are executed late instead of never.
+     */
+    private void applySubmissions() {
+        final long nextTick = getTick() + 1;
+        for (var submission = submissions.poll(); submission != null; submission = submissions.poll()) {
+            var eventTick = Math.max(submission.tick, nextTick);
+            switch (submission.operation) {
+                case EventSubmissionQueue.ADD -> super.addClockEvent(eventTick, submission.event);
+                case EventSubmissionQueue.UPDATE -> super.updateClockEvent(eventTick, submission.event);
+                default -> super.removeClockEvent(submission.event);
+            }
         }
     }
 
@@ -83,7 +126,7 @@ public abstract class AbstractSynchronizedClock extends AbstractClock {
     @Override
     protected final void doInit() {
         // Suspend execution at the start of the first tick.
-        addClockEvent(0, suspendEvent);
+        addClockEvent(getTick() + 1, suspendEvent);
 
         doSynchronizedInit();
 
@@ -141,14 +184,29 @@ public abstract class AbstractSynchronizedClock extends AbstractClock {
      * Start a new tick.
      */
     protected final void startTick() {
-        // First: Increment tick.
-        // Second: Execute events.
-        executeEvents(tick.incrementAndGet());
-        // Third: Execute components: Done by the caller.
+        // First: Apply event submissions of the last tick.
+        if (!submissions.isEmpty()) {
+            applySubmissions();
+        }
+        // Second: Increment tick.
+        var currentTick = tick.incrementAndGet();
+        // Third: Execute events, if any.
+        if (currentTick >= getNextEventTick()) {
+            executeEvents(currentTick);
+        }
+        // Fourth: Execute components: Done by the caller.
     }
 
     @Override
     public final long getTick() {
         return tick.getAcquire();
     }
+
+    @Override
+    protected final void doSetTick(long tick) {
+        // Events added before have not been applied yet.
+        applySubmissions();
+        postponeClockEvents(tick - this.tick.get());
+        this.tick.set(tick);
+    }
 }
@@ -0,0 +1,127 @@
+package de.heiden.jem.components.clock.threads;
+
+import de.heiden.jem.components.clock.ClockEvent;
+import jakarta.annotation.Nonnull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free multi producer single consumer queue for event submissions.
+ * Component threads submit additions, updates and removals of events.
+ * The tick manager drains the submissions at the start of each tick.
+ * <p>
+ * Producers just swap the tail and link the previous tail to the new node.
+ * The consumer follows the links starting at the head.
+ */
+final class EventSubmissionQueue {
+    /**
+     * Operation: Add event.
+     */
+    static final int ADD = 0;
+
+    /**
+     * Operation: Update event.
+     */
+    static final int UPDATE = 1;
+
+    /**
+     * Operation: Remove event.
+     */
+    static final int REMOVE = 2;
+
+    /**
+     * Tail: Last submitted node.
+     */
+    private final AtomicReference<Submission> tail;
+
+    /**
+     * Head: Last consumed node. Accessed by the consumer only.
+     */
+    private Submission head;
+
+    /**
+     * Constructor.
+     */
+    EventSubmissionQueue() {
+        head = new Submission(ADD, -1, null);
+        tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Submit an operation.
+     * May be called by any thread.
+     *
+     * @param operation
+     *         {@link #ADD}, {@link #UPDATE} or {@link #REMOVE}
+     * @param tick
+     *         tick of event, ignored for {@link #REMOVE}
+     * @param event
+     *         event
+     * @require event != null
+     */
+    void submit(int operation, long tick, @Nonnull ClockEvent event) {
+        var submission = new Submission(operation, tick, event);
+        var previous = tail.getAndSet(submission);
+        previous.next = submission;
+    }
+
+    /**
+     * Are there any submissions?
+     * May only be called by the consumer.
+     */
+    boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * Remove and return the next submission.
+     * May only be called by the consumer.
+     *
+     * @return Next submission or null, if there are no more submissions.
+     */
+    Submission poll() {
+        var next = head.next;
+        if (next == null) {
+            return null;
+        }
+
+        // The consumed node becomes the new head. Release the old head for garbage collection.
+        head.next = null;
+        head = next;
+        return next;
+    }
+
+    /**
+     * Submitted operation.
+     */
+    static final class Submission {
+        /**
+         * Operation.
+         */
+        final int operation;
+
+        /**
+         * Tick.
+         */
+        final long tick;
+
+        /**
+         * Event.
+         */
+        final ClockEvent event;
+
+        /**
+         * Next submission.
+         */
+        private volatile Submission next;
+
+        /**
+         * Constructor.
+         */
+        private Submission(int operation, long tick, ClockEvent event) {
+            this.operation = operation;
+            this.tick = tick;
+            this.event = event;
+        }
+    }
+}
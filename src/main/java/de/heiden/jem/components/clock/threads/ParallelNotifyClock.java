@@ -56,6 +56,12 @@ public final class ParallelNotifyClock extends AbstractSynchronizedClock {
          */
         private boolean state = false;
 
+        /**
+         * Number of ticks the component still waits for after the current one.
+         * Just accessed by the tick manager while the component waits.
+         */
+        private int sleep = 0;
+
         @Override
         public synchronized void waitForTick() {
             state = true;
@@ -69,10 +75,24 @@ public final class ParallelNotifyClock extends AbstractSynchronizedClock {
             }
         }
 
+        @Override
+        public synchronized void waitForTicks(int ticks) {
+            assert ticks > 0 : "Precondition: ticks > 0";
+
+            // Skip the start of all but the last tick.
+            sleep = ticks - 1;
+            waitForTick();
+        }
+
         /**
          * Start next tick.
          */
         synchronized void startTick() {
+            if (sleep > 0) {
+                // Component is waiting for more ticks.
+                sleep--;
+                return;
+            }
             state = false;
             notifyAll();
         }
@@ -56,6 +56,12 @@ public final class ParallelSpinClock extends AbstractSynchronizedClock {
          */
         private volatile boolean tickEnd = false;
 
+        /**
+         * Number of ticks the component still waits for after the current one.
+         * Just accessed by the tick manager while the component waits.
+         */
+        private int sleep = 0;
+
         @Override
         public void waitForTick() {
             tickEnd = true;
@@ -64,10 +70,24 @@ public final class ParallelSpinClock extends AbstractSynchronizedClock {
             } while (tickEnd);
         }
 
+        @Override
+        public void waitForTicks(int ticks) {
+            assert ticks > 0 : "Precondition: ticks > 0";
+
+            // Skip the start of all but the last tick.
+            sleep = ticks - 1;
+            waitForTick();
+        }
+
         /**
          * Start the next tick.
          */
         void startTick() {
+            if (sleep > 0) {
+                // Component is waiting for more ticks.
+                sleep--;
+                return;
+            }
             tickEnd = false;
         }
 
@@ -1,5 +1,6 @@
 package de.heiden.jem.components.clock.threads;
 
+import de.heiden.jem.components.clock.ManualAbort;
 import de.heiden.jem.components.clock.Tick;
 
 import java.util.concurrent.locks.LockSupport;
@@ -77,6 +78,10 @@ public final class SequentialClock extends AbstractSynchronizedClock {
             // There is no problem, if this thread is not parked when the previous threads unparks it:
             // In this case this park will not block, see LockSupport.unpark() javadoc.
             LockSupport.park(this);
+            if (Thread.interrupted()) {
+                // Closed: Park does not block anymore, so terminate instead of spinning forever.
+                throw new ManualAbort();
+            }
         } while (this.state != state);
     }
 
@@ -19,6 +19,11 @@ public final class SuspendEvent extends ClockEvent {
      */
     private boolean suspended = false;
 
+    /**
+     * Has the executing thread terminated?.
+     */
+    private boolean terminated = false;
+
     /**
      * Monitor for synchronization.
      */
@@ -66,12 +71,22 @@ public final class SuspendEvent extends ClockEvent {
     }
 
     /**
-     * Wait for suspend.
+     * Mark the executing thread as terminated, so that waiting for suspend does not block anymore.
+     */
+    public void terminate() {
+        synchronized (monitor) {
+            terminated = true;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Wait for suspend or termination of the executing thread.
      */
     public void waitForSuspend() throws ManualAbort {
         try {
             synchronized (monitor) {
-                while (!suspended) {
+                while (!suspended && !terminated) {
                     monitor.wait();
                 }
             }
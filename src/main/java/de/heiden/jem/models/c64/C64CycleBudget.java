@@ -0,0 +1,29 @@
+package de.heiden.jem.models.c64;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static de.heiden.jem.models.c64.gui.javafx.emulator.C64Application.start;
+
+/**
+ * C64 startup with {@link CycleBudgetClock}.
+ * Uses the lazy vic, because the clock supports just the cpu as clocked component.
+ */
+public class C64CycleBudget {
+    /**
+     * Logger.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(C64CycleBudget.class);
+
+    /**
+     * Start the application.
+     */
+    public static void main(String[] args) {
+        try {
+            start("--clock=" + CycleBudgetClock.class.getName(), "--lazyVic=true");
+        } catch (Exception e) {
+            logger.error("Unable to startup", e);
+        }
+    }
+}
@@ -11,12 +11,22 @@ import de.heiden.jem.models.c64.components.memory.ColorRAM;
 import de.heiden.jem.models.c64.components.memory.RAM;
 import de.heiden.jem.models.c64.components.memory.ROM;
 import de.heiden.jem.models.c64.components.memory.ROMLoader;
+import de.heiden.jem.models.c64.components.patch.CaptureSnapshot;
+import de.heiden.jem.models.c64.components.patch.JournaledLoad;
+import de.heiden.jem.models.c64.components.snapshot.InputJournal;
+import de.heiden.jem.models.c64.components.snapshot.InputRecorder;
+import de.heiden.jem.models.c64.components.snapshot.InputReplay;
+import de.heiden.jem.models.c64.components.snapshot.Rewind;
+import de.heiden.jem.models.c64.components.snapshot.Snapshot;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
 import de.heiden.jem.models.c64.components.vic.VIC6569PAL;
 import de.heiden.jem.models.c64.components.vic.VICBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 /**
  * C64.
@@ -42,6 +52,26 @@ public class C64 {
      */
     private final CPU6510 _cpu;
 
+    /**
+     * RAM.
+     */
+    private final RAM _ram;
+
+    /**
+     * Color RAM.
+     */
+    private final ColorRAM _colorRam;
+
+    /**
+     * CIA 1.
+     */
+    private final CIA6526 _cia1;
+
+    /**
+     * CIA 2.
+     */
+    private final CIA6526 _cia2;
+
     /**
      * Keyboard.
      */
@@ -52,6 +82,16 @@ public class C64 {
      */
     private final VIC6569PAL _vic;
 
+    /**
+     * Use lazy vic?
+     */
+    private final boolean _lazyVic;
+
+    /**
+     * Speed control.
+     */
+    private final RealTimeSlowDown _slowDown;
+
     /**
      * Constructor.
      *
@@ -71,36 +111,108 @@ public class C64 {
      *         use debugger cpu?
      */
     public C64(Clock clock, boolean debug) throws Exception {
+        this(clock, debug, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock.
+     * @param debug
+     *         use debugger cpu?
+     * @param lazyVic
+     *         use lazy vic, which catches up on cpu accesses instead of being clocked?
+     */
+    public C64(Clock clock, boolean debug, boolean lazyVic) throws Exception {
+        this(clock, debug, lazyVic, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock.
+     * @param debug
+     *         use debugger cpu?
+     * @param lazyVic
+     *         use lazy vic, which catches up on cpu accesses instead of being clocked?
+     * @param realTime
+     *         start in real time? Otherwise start in {@link #setWarp() warp mode}, e.g. for benchmarks.
+     */
+    public C64(Clock clock, boolean debug, boolean lazyVic, boolean realTime) throws Exception {
+        this(clock, debug ? new CPU6510Debugger(clock) : new CPU6510(), lazyVic, realTime);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock.
+     * @param cpu
+     *         cpu, e.g. {@link CPU6510Debugger} or a subclass instrumenting the cpu
+     * @param lazyVic
+     *         use lazy vic, which catches up on cpu accesses instead of being clocked?
+     * @param realTime
+     *         start in real time? Otherwise start in {@link #setWarp() warp mode}, e.g. for benchmarks.
+     */
+    public C64(Clock clock, CPU6510 cpu, boolean lazyVic, boolean realTime) throws Exception {
+        this(clock, cpu, lazyVic, realTime, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         Clock.
+     * @param cpu
+     *         cpu, e.g. {@link CPU6510Debugger} or a subclass instrumenting the cpu
+     * @param lazyVic
+     *         use lazy vic, which catches up on cpu accesses instead of being clocked?
+     * @param realTime
+     *         start in real time? Otherwise start in {@link #setWarp() warp mode}, e.g. for benchmarks.
+     * @param snapshot
+     *         snapshot to start from or null for the usual init
+     */
+    private C64(Clock clock, CPU6510 cpu, boolean lazyVic, boolean realTime, Snapshot snapshot) throws Exception {
         _clock = clock;
+        _lazyVic = lazyVic;
 
-        RAM _ram = new RAM(0x10000);
-        ColorRAM colorRam = new ColorRAM(0x400);
+        _ram = new RAM(0x10000);
+        _colorRam = new ColorRAM(0x400);
         ROM basic = ROMLoader.basic(ROMLoader.DEFAULT_BASIC);
         ROM kernel = ROMLoader.kernel(ROMLoader.DEFAULT_KERNEL);
         ROM charset = ROMLoader.character(ROMLoader.DEFAULT_CHARACTER);
 
-        CIA6526 cia1 = new CIA6526(_clock);
-        CIA6526 cia2 = new CIA6526(_clock);
+        _cia1 = new CIA6526(_clock);
+        _cia2 = new CIA6526(_clock);
 
-        VICBus vicBus = new VICBus(cia2.portA(), _ram, charset);
-        _vic = new VIC6569PAL(_clock, vicBus, colorRam);
+        VICBus vicBus = new VICBus(_cia2.portA(), _ram, charset);
+        _vic = new VIC6569PAL(_clock, vicBus, _colorRam, lazyVic);
 
-        _keyboard = new Keyboard(cia1.portA(), cia1.portB());
+        _keyboard = new Keyboard(_cia1.portA(), _cia1.portB());
 
-        _cpu = _clock.addClockedComponent(Clock.CPU, debug ? new CPU6510Debugger() : new CPU6510());
-        _cpuBus = new C64Bus(_ram, basic, _vic, colorRam, cia1, cia2, charset, kernel);
+        _cpu = _clock.addClockedComponent(Clock.CPU, cpu);
+        _cpuBus = new C64Bus(_ram, basic, _vic, _vic.getCpuColorRam(), _cia1, _cia2, charset, kernel);
         _cpuBus.connect(_cpu.getPort());
         _cpu.connect(_cpuBus);
-        _cpu.getIRQ().connect(cia1.getIRQ());
+        _cpu.getIRQ().connect(_cia1.getIRQ());
         _cpu.getIRQ().connect(_vic.getIRQ());
-        _cpu.getNMI().connect(cia2.getIRQ());
+        _cpu.getNMI().connect(_cia2.getIRQ());
         _cpu.getNMI().connect(_keyboard.getNMI());
 
-        // real time measurement
+        // real time measurement, adjusted at the start of each frame (50.12 Hz)
         // TODO 2010-03-14 mh: NTSC: 1022700 Hz
-        new RealTimeSlowDown(clock, 985248, 100);
+        _slowDown = new RealTimeSlowDown(clock, 985248, _vic.getCyclesPerFrame(), true);
+        if (!realTime) {
+            setWarp();
+        }
 
-        init();
+        if (snapshot == null) {
+            init();
+        } else {
+            restore(snapshot);
+        }
     }
 
     /**
@@ -149,6 +261,225 @@ public class C64 {
         _clock.close();
     }
 
+    //
+    // Snapshots
+    //
+
+    /**
+     * Capture a snapshot of the current state.
+     * Has to be called by the cpu thread between two opcodes or by a patch, e.g. {@link CaptureSnapshot}.
+     * Use {@link #captureNow()} from other threads.
+     */
+    public Snapshot capture() {
+        return Snapshot.capture(_clock, snapshotComponents());
+    }
+
+    /**
+     * Capture a snapshot before the next opcode of the cpu.
+     * May be called by any thread, e.g. by the gui, while the emulation is running.
+     *
+     * @return Future providing the snapshot, when it has been captured
+     */
+    public CompletableFuture<Snapshot> captureNow() {
+        var result = new CompletableFuture<Snapshot>();
+        _cpu.atNextOpcode(() -> {
+            try {
+                result.complete(capture());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Capture a snapshot, when the cpu executes the opcode at the given address the next time.
+     *
+     * @param address
+     *         Address of the opcode
+     * @return Patch providing the snapshot, when it has been captured
+     */
+    public CaptureSnapshot captureAt(int address) {
+        var patch = new CaptureSnapshot(address, this::capture);
+        _cpu.add(patch);
+        return patch;
+    }
+
+    /**
+     * Restore a snapshot. The emulation continues at the state of the snapshot, when it is {@link #start() started}.
+     *
+     * @param snapshot
+     *         Snapshot
+     * @require emulation has not been started
+     */
+    public void restore(Snapshot snapshot) {
+        snapshot.restore(_clock, snapshotComponents());
+    }
+
+    /**
+     * Record a checkpoint each frame for stepping back. Requires the debugger cpu.
+     *
+     * @param budget
+     *         maximum number of bytes used by the checkpoints
+     * @return rewind buffer, {@link Rewind#close() close} it to stop recording
+     */
+    public Rewind recordRewind(long budget) {
+        if (!(_cpu instanceof CPU6510Debugger debugger)) {
+            throw new IllegalStateException("Rewinding requires the debugger cpu.");
+        }
+        return new Rewind(_clock, debugger, _cpuBus, _ram, _colorRam, _vic.getCyclesPerFrame(), budget,
+                _cia1, _cia2, _keyboard, _vic, _cpu);
+    }
+
+    /**
+     * Restore a position of a rewind buffer. The emulation suspends at the position, when it is {@link #start() started}.
+     * Requires the debugger cpu.
+     *
+     * @param position
+     *         Position
+     * @require emulation has not been started
+     */
+    public void restore(Rewind.Position position) {
+        if (!(_cpu instanceof CPU6510Debugger debugger)) {
+            throw new IllegalStateException("Rewinding requires the debugger cpu.");
+        }
+        restore(position.snapshot());
+        debugger.suspendAfter(position.opcodes());
+    }
+
+    /**
+     * Record the external inputs into a journal, including a checksum of the RAM each frame.
+     * Send the keyboard input to the returned recorder instead of to the {@link #getKeyboard() keyboard}.
+     * Use {@link JournaledLoad} to record file loads.
+     *
+     * @return recorder
+     * @require emulation has not been started
+     */
+    public InputRecorder recordInputs() {
+        return new InputRecorder(_clock, _keyboard, _ram, _vic.getCyclesPerFrame());
+    }
+
+    /**
+     * Replay the external inputs of a journal.
+     * This C64 has to start from the same state as the recording one, e.g. from the same snapshot.
+     * Use {@link JournaledLoad} to replay file loads.
+     *
+     * @param journal
+     *         Journal
+     * @return replay
+     * @require emulation has not been started
+     */
+    public InputReplay replayInputs(InputJournal journal) {
+        return new InputReplay(_clock, _keyboard, _ram, journal);
+    }
+
+    /**
+     * Fork: Independent C64 with its own clock, continuing from the current state of this C64.
+     * Has to be called by the cpu thread between two opcodes or by a patch, see {@link #capture()}.
+     *
+     * @param clock
+     *         Clock of the fork
+     * @see #fork(Clock, Snapshot)
+     */
+    public C64 fork(Clock clock) throws Exception {
+        return fork(clock, capture());
+    }
+
+    /**
+     * Fork: Independent C64 with its own clock, continuing from a snapshot of this C64.
+     * The fork uses the same kind of cpu and vic and the current speed of this C64.
+     * It shares the ROMs with this C64, see {@link ROMLoader}, and it does not need the usual init,
+     * so many forks of the same snapshot are created cheaply, e.g. to run them in parallel.
+     * The patches of this C64 are not forked. A debugger cpu of a fork does not trace.
+     * The RAMs of the fork share their pages with the snapshot until either side writes to them.
+     *
+     * @param clock
+     *         Clock of the fork
+     * @param snapshot
+     *         Snapshot of this C64, e.g. from {@link #captureAt(int)}
+     * @require clock has not been started
+     * @throws IllegalArgumentException if the cpu of this C64 can not be forked
+     */
+    public C64 fork(Clock clock, Snapshot snapshot) throws Exception {
+        var fork = new C64(clock, newCpu(clock), _lazyVic, true, snapshot);
+        fork.setSpeed(getSpeed());
+        return fork;
+    }
+
+    /**
+     * New cpu of the same kind as the cpu of this C64.
+     * Subclasses of the cpus are not known, so they can not be forked.
+     *
+     * @param clock
+     *         Clock of the new cpu
+     * @throws IllegalArgumentException if the cpu of this C64 can not be forked
+     */
+    private CPU6510 newCpu(Clock clock) {
+        if (_cpu.getClass() == CPU6510Debugger.class) {
+            // Forks do not trace, because the ring of traces is big.
+            return new CPU6510Debugger(clock, 0);
+        }
+        if (_cpu.getClass() == CPU6510.class) {
+            return new CPU6510();
+        }
+        throw new IllegalArgumentException("Can not fork cpu " + _cpu.getClass().getName() + ".");
+    }
+
+    /**
+     * Components contained in snapshots, in the order to restore them.
+     * The cpu is the last one, because the other components drive its irq and nmi inputs.
+     */
+    private Stateful[] snapshotComponents() {
+        return new Stateful[] { _ram, _colorRam, _cia1, _cia2, _keyboard, _vic, _cpu };
+    }
+
+    //
+    // Speed control
+    //
+
+    /**
+     * Current speed: 1 = real time, {@link RealTimeSlowDown#WARP} = as fast as possible.
+     */
+    public double getSpeed() {
+        return _slowDown.getSpeed();
+    }
+
+    /**
+     * Run in real time. This is the default.
+     */
+    public void setRealTime() {
+        setSpeed(1);
+    }
+
+    /**
+     * Run at a multiple of real time.
+     *
+     * @param speed
+     *         Speed: 1 = real time, 2 = twice as fast, {@link RealTimeSlowDown#WARP} = as fast as possible
+     * @require speed > 0
+     */
+    public void setSpeed(double speed) {
+        _slowDown.setSpeed(speed);
+    }
+
+    /**
+     * Run as fast as possible.
+     */
+    public void setWarp() {
+        setSpeed(RealTimeSlowDown.WARP);
+    }
+
+    /**
+     * Run as fast as possible, until the condition holds. Then continue with the current speed.
+     * E.g. for loading programs. The condition is evaluated by the emulation once per frame.
+     *
+     * @param condition
+     *         Condition to stop warping
+     */
+    public void warpUntil(BooleanSupplier condition) {
+        _slowDown.warpUntil(condition);
+    }
+
     //
     // Expose components, e.g. for debugger
     //
@@ -174,6 +505,13 @@ public class C64 {
         return _keyboard;
     }
 
+    /**
+     * Real time slow down, e.g. for its pacing statistics.
+     */
+    public RealTimeSlowDown getRealTimeSlowDown() {
+        return _slowDown;
+    }
+
     /**
      * VIC.
      */
@@ -7,15 +7,20 @@ import de.heiden.jem.components.ports.InputOutputPort;
 import de.heiden.jem.components.ports.InputOutputPortImpl;
 import de.heiden.jem.components.ports.OutputPort;
 import de.heiden.jem.components.ports.OutputPortImpl;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
 import jakarta.annotation.Nonnull;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * CIA 6526.
  * <p>
  * TODO PC handling for port a & b
  * TODO serial port handling!
  */
-public class CIA6526 implements BusDevice {
+public class CIA6526 implements BusDevice, Stateful {
     public static final int PB6 = 0x40;
     public static final int PB6_MASK = 0xFF - PB6;
     public static final int PB7 = 0x80;
@@ -732,4 +737,132 @@ public class CIA6526 implements BusDevice {
     public void updateTime() {
         // TODO implement
     }
+
+    //
+    // Snapshot
+    //
+
+    /**
+     * Save the state incl. the pending events.
+     *
+     * @param out
+     *         output to write the state to
+     */
+    @Override
+    public void save(@Nonnull DataOutput out) throws IOException {
+        out.writeByte(portA.outputData());
+        out.writeByte(portA.outputMask());
+        out.writeByte(portB.outputData());
+        out.writeByte(portB.outputMask());
+        out.writeByte(controlA);
+        out.writeByte(controlB);
+        out.writeByte(sdr);
+
+        out.writeInt(timerA);
+        out.writeInt(timerAInit);
+        out.writeBoolean(timerACLK);
+        out.writeLong(timerABase);
+        out.writeBoolean(timerACNT);
+        out.writeInt(timerB);
+        out.writeInt(timerBInit);
+        out.writeBoolean(timerBCLK);
+        out.writeLong(timerBBase);
+        out.writeBoolean(timerBCNT);
+
+        out.writeLong(timeBase);
+        out.writeByte(timeTenth);
+        out.writeByte(timeSec);
+        out.writeByte(timeMin);
+        out.writeByte(timeHour);
+        out.writeBoolean(timeIsRunning);
+        out.writeBoolean(timeLock);
+        out.writeByte(timeTenthTemp);
+        out.writeByte(timeSecTemp);
+        out.writeByte(timeMinTemp);
+        out.writeByte(timeHourTemp);
+        out.writeByte(alarmTenth);
+        out.writeByte(alarmSec);
+        out.writeByte(alarmMin);
+        out.writeByte(alarmHour);
+
+        out.writeByte(irq);
+        out.writeByte(irqMask);
+        out.writeByte(irqPort.outputData());
+
+        // Pending events. The underflow events are pending, as long as the timers count the clock.
+        long tick = clock.getTick();
+        out.writeLong(timerALoadEvent.getTick() > tick ? timerALoadEvent.getTick() : -1);
+        out.writeLong(timerACLK ? timerAUnderflowEvent.getTick() : -1);
+        out.writeLong(timerBLoadEvent.getTick() > tick ? timerBLoadEvent.getTick() : -1);
+        out.writeLong(timerBCLK ? timerBUnderflowEvent.getTick() : -1);
+    }
+
+    /**
+     * Restore the state incl. the pending events.
+     * The clock has to be set to the tick of the state before.
+     *
+     * @param in
+     *         input to read the state from, see {@link #save(DataOutput)}
+     */
+    @Override
+    public void restore(@Nonnull DataInput in) throws IOException {
+        portA.setOutputData(in.readUnsignedByte());
+        portA.setOutputMask(in.readUnsignedByte());
+        portB.setOutputData(in.readUnsignedByte());
+        portB.setOutputMask(in.readUnsignedByte());
+        controlA = in.readUnsignedByte();
+        controlB = in.readUnsignedByte();
+        sdr = in.readUnsignedByte();
+
+        timerA = in.readInt();
+        timerAInit = in.readInt();
+        timerACLK = in.readBoolean();
+        timerABase = in.readLong();
+        timerACNT = in.readBoolean();
+        timerB = in.readInt();
+        timerBInit = in.readInt();
+        timerBCLK = in.readBoolean();
+        timerBBase = in.readLong();
+        timerBCNT = in.readBoolean();
+
+        timeBase = in.readLong();
+        timeTenth = in.readUnsignedByte();
+        timeSec = in.readUnsignedByte();
+        timeMin = in.readUnsignedByte();
+        timeHour = in.readUnsignedByte();
+        timeIsRunning = in.readBoolean();
+        timeLock = in.readBoolean();
+        timeTenthTemp = in.readUnsignedByte();
+        timeSecTemp = in.readUnsignedByte();
+        timeMinTemp = in.readUnsignedByte();
+        timeHourTemp = in.readUnsignedByte();
+        alarmTenth = in.readUnsignedByte();
+        alarmSec = in.readUnsignedByte();
+        alarmMin = in.readUnsignedByte();
+        alarmHour = in.readUnsignedByte();
+
+        irq = in.readUnsignedByte();
+        irqMask = in.readUnsignedByte();
+        irqPort.setOutputData(in.readUnsignedByte());
+
+        restoreEvent(in.readLong(), timerALoadEvent);
+        restoreEvent(in.readLong(), timerAUnderflowEvent);
+        restoreEvent(in.readLong(), timerBLoadEvent);
+        restoreEvent(in.readLong(), timerBUnderflowEvent);
+    }
+
+    /**
+     * Restore a pending event.
+     *
+     * @param tick
+     *         tick of the event, -1 if not pending
+     * @param event
+     *         event
+     */
+    private void restoreEvent(long tick, ClockEvent event) {
+        clock.removeClockEvent(event);
+        if (tick >= 0) {
+            clock.addClockEvent(tick, event);
+        }
+    }
 }
@@ -6,14 +6,24 @@ import de.heiden.jem.components.bus.NoBusDevice;
 import de.heiden.jem.components.ports.InputPort;
 import de.heiden.jem.components.ports.InputPortImpl;
 import de.heiden.jem.components.ports.OutputPort;
+import de.heiden.jem.models.c64.components.memory.AbstractMemory;
 import de.heiden.jem.models.c64.components.memory.Patchable;
 import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
 /**
  * C64 bus.
  * <p>
+ * Reads of pages mapped to plain memory (RAM, ROM, color RAM) are executed directly on a view of the page,
+ * to avoid the megamorphic call of the bus device. Only IO pages are read via their bus device.
+ * <p>
  * TODO evaluate loram, hiram, charen, game, exrom
  * TODO SID, IO1, IO2
  */
@@ -40,12 +50,38 @@ public class C64Bus implements BusDevice, Patchable {
 
     private final BusDevice noBusDevice;
 
+    /**
+     * Current mode.
+     */
+    private int mode = 0x1F;
+
     private BusDevice[] ioModeRead;
     private BusDevice[] ioModeWrite;
 
     private final BusDevice[][] ioModesRead;
     private final BusDevice[][] ioModesWrite;
 
+    /**
+     * Page table for direct reads of the current mode:
+     * View of each page mapped to plain memory, null for pages mapped to other devices.
+     */
+    private MemorySegment[] pagesRead;
+
+    /**
+     * Page tables for direct reads of all modes, parallel to {@link #ioModesRead}.
+     */
+    private final MemorySegment[][] pagesModesRead;
+
+    /**
+     * Listeners for writes to watched pages and for changes of the mode.
+     */
+    private MemoryListener[] memoryListeners = new MemoryListener[0];
+
+    /**
+     * Page -> Number of watches by the memory listeners.
+     */
+    private final int[] watchedPages = new int[256];
+
     /**
      * Constructor.
      *
@@ -197,15 +233,31 @@ public class C64Bus implements BusDevice, Patchable {
                         ioModeWriteIo,   // 01 11111 11111
                 };
 
+        pagesModesRead = new MemorySegment[ioModesRead.length][];
+        computePagesRead();
+        pagesRead = pagesModesRead[mode];
+        // Shared read-only pages get replaced by a copy, when they are modified.
+        for (var device : new BusDevice[]{ ram, basic, colorRam, charset, kernel }) {
+            if (device instanceof AbstractMemory memory) {
+                memory.setPageListener(page -> updatePagesRead(memory));
+            }
+        }
+
         cpu.addInputPortListener((value, mask) -> {
             // TODO 2010-10-08 mh: consider signals from expansion port
-            int mode = ((value << 2) | 0x03) & 0x1f;
+            mode = ((value << 2) | 0x03) & 0x1f;
 
             BusDevice[] oldIoModeRead = ioModeRead;
             ioModeRead = ioModesRead[mode];
             ioModeWrite = ioModesWrite[mode];
-            if (logger.isDebugEnabled() && oldIoModeRead != ioModeRead) {
-                logger.debug("Changed bus mode to {}", HexUtil.hexBytePlain(mode));
+            pagesRead = pagesModesRead[mode];
+            if (oldIoModeRead != ioModeRead) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Changed bus mode to {}", HexUtil.hexBytePlain(mode));
+                }
+                for (var memoryListener : memoryListeners) {
+                    memoryListener.modeChanged(mode);
+                }
             }
         });
     }
@@ -238,6 +290,50 @@ public class C64Bus implements BusDevice, Patchable {
         return result;
     }
 
+    /**
+     * Compute the page tables for direct reads of all modes.
+     * Modes sharing the same devices share the same page table.
+     */
+    private void computePagesRead() {
+        var pagesByIoModeRead = new IdentityHashMap<BusDevice[], MemorySegment[]>();
+        for (int i = 0; i < ioModesRead.length; i++) {
+            pagesModesRead[i] = pagesByIoModeRead.computeIfAbsent(ioModesRead[i], this::computePagesRead);
+        }
+    }
+
+    /**
+     * Compute the page table for direct reads of a mode.
+     *
+     * @param ioModeRead
+     *         devices of each page
+     */
+    private MemorySegment[] computePagesRead(BusDevice[] ioModeRead) {
+        var result = new MemorySegment[256];
+        for (int page = 0x00; page <= 0xFF; page++) {
+            if (ioModeRead[page] instanceof AbstractMemory memory) {
+                result[page] = memory.page(page << 8);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the views of the pages of the given memory in the page tables for direct reads of all modes,
+     * after a page of it has been replaced.
+     *
+     * @param memory
+     *         memory
+     */
+    private void updatePagesRead(AbstractMemory memory) {
+        for (int i = 0; i < ioModesRead.length; i++) {
+            for (int page = 0x00; page <= 0xFF; page++) {
+                if (ioModesRead[i][page] == memory) {
+                    pagesModesRead[i][page] = memory.page(page << 8);
+                }
+            }
+        }
+    }
+
     private BusDevice[] computeIoModeWrite(BusDevice ram, boolean io) {
         var result = new BusDevice[256];
         for (int i = 0x00; i <= 0xFF; i++) {
@@ -270,6 +366,67 @@ public class C64Bus implements BusDevice, Patchable {
     // public
     //
 
+    /**
+     * Current mode, which determines the mapping of the devices.
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * Is the given address currently mapped to plain memory (RAM, ROM, color RAM) for reads?
+     *
+     * @param address
+     *         address
+     * @require address >= 0x0000 && address < 0x10000
+     */
+    public boolean isMemory(int address) {
+        return pagesRead[address >> 8] != null;
+    }
+
+    /**
+     * Add a listener for writes to watched pages and for changes of the mode.
+     * Patches are reported for all pages.
+     *
+     * @param memoryListener
+     *         listener
+     */
+    public void addMemoryListener(@Nonnull MemoryListener memoryListener) {
+        memoryListeners = Arrays.copyOf(memoryListeners, memoryListeners.length + 1);
+        memoryListeners[memoryListeners.length - 1] = memoryListener;
+    }
+
+    /**
+     * Remove a listener for writes to watched pages and for changes of the mode.
+     * The listener has to unwatch its pages itself.
+     *
+     * @param memoryListener
+     *         listener
+     */
+    public void removeMemoryListener(@Nonnull MemoryListener memoryListener) {
+        memoryListeners = Arrays.stream(memoryListeners)
+                .filter(listener -> listener != memoryListener)
+                .toArray(MemoryListener[]::new);
+    }
+
+    /**
+     * (Un-)Watch a page for writes.
+     * The watches are counted, so each watch has to be balanced by an unwatch.
+     * Writes to watched pages are reported to all listeners.
+     *
+     * @param page
+     *         page (high byte of address)
+     * @param watch
+     *         watch (true) or unwatch (false) page
+     * @require page >= 0x00 && page < 0x100
+     */
+    public void watch(int page, boolean watch) {
+        assert page >= 0x00 && page < 0x100 : "Precondition: page >= 0x00 && page < 0x100";
+
+        watchedPages[page] += watch ? 1 : -1;
+        assert watchedPages[page] >= 0 : "Postcondition: watchedPages[page] >= 0";
+    }
+
     /**
      * Connect to cpu port.
      */
@@ -289,6 +446,11 @@ public class C64Bus implements BusDevice, Patchable {
     public final int read(int address) {
         assert address >= 0x0000 && address < 0x10000 : "address >= 0x0000 && address < 0x10000";
 
+        var page = pagesRead[address >> 8];
+        if (page != null) {
+            // Plain memory: Read directly.
+            return page.get(JAVA_BYTE, address & 0xFF) & 0xFF;
+        }
         return ioModeRead[address >> 8].read(address);
     }
 
@@ -306,6 +468,9 @@ public class C64Bus implements BusDevice, Patchable {
         // 0x100 is used to escape emulation in the cpu
         assert value >= 0 && value < 0x100 : "value >= 0 && value < 0x100";
 
+        for (var memoryListener : memoryListeners) {
+            memoryListener.write(address);
+        }
         ((Patchable) ioModeRead[address >> 8]).patch(value, address);
     }
 
@@ -324,6 +489,32 @@ public class C64Bus implements BusDevice, Patchable {
         assert value >= 0x00 && value < 0x100 : "value >= 0x00 && value < 0x100";
         assert address >= 0x0000 && address < 0x10000 : "address >= 0x0000 && address < 0x10000";
 
+        if (watchedPages[address >> 8] != 0) {
+            for (var memoryListener : memoryListeners) {
+                memoryListener.write(address);
+            }
+        }
         ioModeWrite[address >> 8].write(value, address);
     }
+
+    /**
+     * Listener for writes to watched pages and for changes of the mode, e.g. to invalidate decoded opcodes.
+     */
+    public interface MemoryListener {
+        /**
+         * A watched page is about to be written or any page is about to be patched.
+         *
+         * @param address
+         *         address
+         */
+        void write(int address);
+
+        /**
+         * The mode, which determines the mapping of the devices, has changed.
+         *
+         * @param mode
+         *         new mode
+         */
+        void modeChanged(int mode);
+    }
 }
@@ -10,18 +10,22 @@ import de.heiden.jem.components.ports.InputPort;
 import de.heiden.jem.components.ports.InputPortImpl;
 import de.heiden.jem.components.ports.OutputPortImpl;
 import de.heiden.jem.models.c64.components.memory.Patchable;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
 import jakarta.annotation.Nonnull;
 import org.serialthreads.Interruptible;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * CPU.
  */
-public class CPU6510 implements ClockedComponent {
+public class CPU6510 implements ClockedComponent, Stateful {
     /**
      * Logger.
      */
@@ -70,9 +74,34 @@ public class CPU6510 implements ClockedComponent {
     private boolean nmiState = false;
 
     /**
-     * Address -> Patch.
+     * Page (high byte of address) -> Patches of the page indexed by the low byte of the address or null.
+     * Pages without patches are not allocated, so a cpu without patches, e.g. a fork, needs just 1 KB for them.
+     * Dispatching a patch does not allocate.
      */
-    private final Map<Integer, Patch> patches = new HashMap<>();
+    private final Patch[][] patches = new Patch[0x100][];
+
+    /**
+     * Reset at the start of {@link #run()}?
+     * False, if the state has been restored, because then the cpu continues with the restored state.
+     */
+    private boolean resetAtStart = true;
+
+    /**
+     * Opcode, which has been fetched, but not been executed yet, while executing a patch.
+     * Otherwise -1.
+     */
+    private int fetched = -1;
+
+    /**
+     * Have actions been requested to be executed before the next opcode?
+     * Just this flag is checked between two opcodes, so the actions are cheap, if there are none.
+     */
+    private volatile boolean atNextOpcode = false;
+
+    /**
+     * Actions to execute before the next opcode, see {@link #atNextOpcode(Runnable)}.
+     */
+    private final Queue<Runnable> atNextOpcodeActions = new ConcurrentLinkedQueue<>();
 
     /**
      * Constructor.
@@ -136,15 +165,93 @@ public class CPU6510 implements ClockedComponent {
 
     /**
      * Add a patch.
+     * Replaces a patch added before for the same address.
      *
      * @param patch
      *         Patch
      */
     public void add(@Nonnull Patch patch) {
-        patches.put(patch.getAddress(), patch);
+        int address = patch.getAddress();
+        var existing = patchAt(address);
+        int replaced = patch(0x02, address); // add breakpoint
+        patch.replaced = existing != null ? existing.replaced : replaced;
+        var page = patches[address >> 8];
+        if (page == null) {
+            page = new Patch[0x100];
+            patches[address >> 8] = page;
+        }
+        page[address & 0xFF] = patch;
+    }
+
+    /**
+     * Remove a patch. Restores the replaced opcode.
+     * Does nothing, if the patch has not been added or has been replaced by another patch.
+     *
+     * @param patch
+     *         Patch
+     */
+    public void remove(@Nonnull Patch patch) {
+        int address = patch.getAddress();
+        if (patchAt(address) != patch) {
+            return;
+        }
+
+        patch(patch.replaced, address); // remove breakpoint
+        patches[address >> 8][address & 0xFF] = null;
+    }
+
+    /**
+     * Execute the action by the cpu thread before the next opcode, e.g. to capture a snapshot.
+     * May be called by any thread. Actions requested before are executed too.
+     *
+     * @param action
+     *         action
+     */
+    public void atNextOpcode(@Nonnull Runnable action) {
+        atNextOpcodeActions.add(action);
+        atNextOpcode = true;
+    }
+
+    /**
+     * Execute the actions requested via {@link #atNextOpcode(Runnable)}.
+     */
+    private void executeAtNextOpcode() {
+        // Reset the flag first, so that actions added meanwhile are executed before the next opcode at the latest.
+        atNextOpcode = false;
+        for (var action = atNextOpcodeActions.poll(); action != null; action = atNextOpcodeActions.poll()) {
+            action.run();
+        }
+    }
+
+    /**
+     * Patch at the given address.
+     *
+     * @param address
+     *         address
+     * @return Patch or null
+     */
+    private Patch patchAt(int address) {
+        var page = patches[address >> 8];
+        return page != null ? page[address & 0xFF] : null;
+    }
+
+    /**
+     * Patch a byte in the standard memory layout.
+     * The memory layout selected via the cpu port stays unchanged.
+     *
+     * @param value
+     *         byte to write
+     * @param address
+     *         address to write byte to
+     * @return Replaced byte.
+     */
+    private int patch(int value, int address) {
+        int port = readPort(0x0001);
         writePort(0xFF, 0x0001); // standard memory layout
-        patch.replaced = bus.read(patch.getAddress());
-        ((Patchable) bus).patch(0x02, patch.getAddress()); // add breakpoint
+        int replaced = bus.read(address);
+        ((Patchable) bus).patch(value, address);
+        writePort(port, 0x0001);
+        return replaced;
     }
 
     /**
@@ -194,11 +301,22 @@ public class CPU6510 implements ClockedComponent {
     @Override
     @Interruptible
     public final void run() {
-        reset();
+        if (resetAtStart) {
+            reset();
+        } else if (fetched >= 0) {
+            // Continue with the opcode fetched before the state has been restored.
+            int opcode = fetched;
+            fetched = -1;
+            OPCODES[opcode].execute();
+        }
 
         var state = this.state;
         //noinspection InfiniteLoopStatement
         while (true) {
+            if (atNextOpcode) {
+                executeAtNextOpcode();
+            }
+
             if (state.NMI) {
                 nmi();
 
@@ -273,9 +391,11 @@ public class CPU6510 implements ClockedComponent {
                         public void execute() // $02: *KIL (*) // TODO imm?
                         {
                             // Use opcode $02 as escape
-                            var patch = patches.get(state.PC - 1);
+                            var patch = patchAt((state.PC - 1) & 0xFFFF);
                             if (patch != null) {
+                                fetched = patch.replaced;
                                 int opcode = patch.execute(state, bus);
+                                fetched = -1;
                                 if (opcode != Patch.DO_NOT_EXECUTE) {
                                     OPCODES[opcode].execute();
                                 }
@@ -413,7 +533,7 @@ public class CPU6510 implements ClockedComponent {
                         @Interruptible
                         public void execute() // $10: BPL $XXXX (2/3) // rel
                         {
-                            branchIf(!state.N);
+                            branchIf(!state.isN());
                         }
                     },
 
@@ -717,7 +837,7 @@ public class CPU6510 implements ClockedComponent {
                         @Interruptible
                         public void execute() // $30: BMI $XXXX (2/3) // rel
                         {
-                            branchIf(state.N);
+                            branchIf(state.isN());
                         }
                     },
 
@@ -2210,7 +2330,7 @@ public class CPU6510 implements ClockedComponent {
                         @Interruptible
                         public void execute() // $D0: BNE $XXXX (2/3) // rel
                         {
-                            branchIf(!state.Z);
+                            branchIf(!state.isZ());
                         }
                     },
 
@@ -2508,7 +2628,7 @@ public class CPU6510 implements ClockedComponent {
                         @Interruptible
                         public void execute() // $F0: BEQ $XXXX (2/3) // rel
                         {
-                            branchIf(state.Z);
+                            branchIf(state.isZ());
                         }
                     },
 
@@ -3684,6 +3804,71 @@ public class CPU6510 implements ClockedComponent {
         }
     }
 
+    //
+    // Snapshot
+    //
+
+    /**
+     * Save the state incl. the cpu port.
+     * Has to be called between two opcodes or by a patch, which executes the replaced opcode afterwards.
+     *
+     * @param out
+     *         output to write the state to
+     */
+    @Override
+    public void save(@Nonnull DataOutput out) throws IOException {
+        out.writeShort(fetched);
+        // Save interrupt first, because getP() may modify it.
+        out.writeBoolean(state.interrupt);
+        out.writeShort(state.PC);
+        out.writeByte(state.S);
+        out.writeByte(state.getP());
+        out.writeBoolean(state.B);
+        out.writeByte(state.A);
+        out.writeByte(state.X);
+        out.writeByte(state.Y);
+        out.writeBoolean(state.IRQ);
+        out.writeBoolean(state.NMI);
+        out.writeBoolean(irqState);
+        out.writeBoolean(nmiState);
+
+        out.writeByte(portOut.outputMask());
+        out.writeByte(portOut.outputData());
+    }
+
+    /**
+     * Restore the state incl. the cpu port.
+     * Has to be called before the clock has been started.
+     * Afterwards the cpu continues with the restored state instead of resetting.
+     * Restore the cpu after all devices driving its irq and nmi inputs, because they update the interrupt state.
+     *
+     * @param in
+     *         input to read the state from
+     */
+    @Override
+    public void restore(@Nonnull DataInput in) throws IOException {
+        fetched = in.readShort();
+        boolean interrupt = in.readBoolean();
+        state.PC = in.readUnsignedShort();
+        state.S = in.readUnsignedByte();
+        state.setP(in.readUnsignedByte());
+        state.B = in.readBoolean();
+        state.A = in.readUnsignedByte();
+        state.X = in.readUnsignedByte();
+        state.Y = in.readUnsignedByte();
+        state.IRQ = in.readBoolean();
+        state.NMI = in.readBoolean();
+        state.interrupt = interrupt;
+        irqState = in.readBoolean();
+        nmiState = in.readBoolean();
+
+        // Write the port, so that the memory layout gets updated too.
+        writePort(in.readUnsignedByte(), 0x0000);
+        writePort(in.readUnsignedByte(), 0x0001);
+
+        resetAtStart = false;
+    }
+
     //
     // External debugging support
     //
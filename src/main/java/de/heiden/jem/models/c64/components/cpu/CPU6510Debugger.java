@@ -1,14 +1,24 @@
 package de.heiden.jem.models.c64.components.cpu;
 
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.components.clock.Clock;
+import jakarta.annotation.Nonnull;
 import org.serialthreads.Interruptible;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import static de.heiden.c64dt.assembler.Opcode.OPCODES;
+
 /**
  * CPU variant which support debugging.
+ * <p>
+ * Traces the last executed opcodes in a ring of packed records, if enabled.
+ * If connected to a {@link C64Bus}, the opcodes are decoded just once per address and mode,
+ * until the address gets written. Opcodes in IO pages are not read for tracing, to avoid side effects.
  */
 public class CPU6510Debugger extends CPU6510 {
     /**
@@ -34,32 +44,147 @@ public class CPU6510Debugger extends CPU6510 {
     private boolean _stop;
     private final Object _suspendLock = new Object();
 
+    /**
+     * Number of executed opcodes.
+     */
+    private long _executed = 0;
+
+    /**
+     * Number of executed opcodes to suspend at or -1.
+     */
+    private long _suspendAt = -1;
+
+    /**
+     * Default number of traced opcodes.
+     */
+    private static final int TRACES = 1000000;
+
+    /**
+     * Number of traced opcodes, 0 if tracing is disabled.
+     */
+    private final int _traceCapacity;
+
+    /**
+     * Clock for the ticks of the traces, if any.
+     */
+    private final Clock _clock;
+
+    /**
+     * Index of the next trace.
+     */
     private int _currentTrace;
-    private final Trace[] _traces;
+
+    /**
+     * Ring of traces, 2 longs per trace: Tick and packed opcode, see {@link #trace(int, int)}.
+     */
+    private final long[] _traces;
+
+    /**
+     * Bus, if the decoded opcodes are cached.
+     */
+    private C64Bus _c64Bus;
+
+    /**
+     * Address -> Decoded opcode (bytes 0-23: opcode incl. argument, bits 24-25: size, bits 26-30: mode) or 0.
+     * Just needed for tracing.
+     */
+    private final int[] _decoded;
+
+    /**
+     * Listener for invalidation of decoded opcodes.
+     */
+    private final C64Bus.MemoryListener _memoryListener = new C64Bus.MemoryListener() {
+        @Override
+        public void write(int address) {
+            // The address may contain the opcode or an argument of an opcode.
+            _decoded[address] = 0;
+            _decoded[(address - 1) & 0xFFFF] = 0;
+            _decoded[(address - 2) & 0xFFFF] = 0;
+        }
+
+        @Override
+        public void modeChanged(int mode) {
+            // Decoded opcodes are bound to the mode.
+        }
+    };
 
     private final Set<Integer> _breakpoints;
 
     private final CPU6510State _state;
 
     /**
-     * Constructor.
+     * Constructor without tracing of ticks.
      */
     public CPU6510Debugger() {
+        this(null);
+    }
+
+    /**
+     * Constructor tracing the default number of opcodes.
+     *
+     * @param clock
+     *         Clock for tracing the ticks or null
+     */
+    public CPU6510Debugger(Clock clock) {
+        this(clock, TRACES);
+    }
+
+    /**
+     * Constructor.
+     * The ring of traces needs 16 bytes per opcode, e.g. 16 MB for the default number of opcodes.
+     *
+     * @param clock
+     *         Clock for tracing the ticks or null
+     * @param traces
+     *         Number of traced opcodes, 0 to disable tracing, e.g. for forks
+     * @require traces >= 0
+     */
+    public CPU6510Debugger(Clock clock, int traces) {
+        assert traces >= 0 : "Precondition: traces >= 0";
+
+        _clock = clock;
+
         _suspend = false;
         _suspended = false;
         _stop = false;
 
+        _traceCapacity = traces;
         _currentTrace = 0;
-        _traces = new Trace[1000000];
-        for (int i = 0; i < _traces.length; i++) {
-            _traces[i] = new Trace();
-        }
+        _traces = new long[2 * traces];
+        _decoded = traces > 0 ? new int[0x10000] : null;
 
         _breakpoints = new HashSet<>();
 
         _state = getState();
     }
 
+    @Override
+    public void connect(@Nonnull BusDevice bus) {
+        if (_decoded == null) {
+            // No tracing: No need to decode opcodes.
+            super.connect(bus);
+            return;
+        }
+
+        if (_c64Bus != null) {
+            _c64Bus.removeMemoryListener(_memoryListener);
+            for (int page = 0; page < 0x100; page++) {
+                _c64Bus.watch(page, false);
+            }
+        }
+
+        super.connect(bus);
+
+        Arrays.fill(_decoded, 0);
+        _c64Bus = bus instanceof C64Bus c64Bus ? c64Bus : null;
+        if (_c64Bus != null) {
+            _c64Bus.addMemoryListener(_memoryListener);
+            for (int page = 0; page < 0x100; page++) {
+                _c64Bus.watch(page, true);
+            }
+        }
+    }
+
     @Override
     @Interruptible
     public void reset() {
@@ -97,11 +222,9 @@ public class CPU6510Debugger extends CPU6510 {
         // Automatic tracing of the last executed opcodes
         //
 
-        Trace trace = _traces[_currentTrace++];
-        if (_currentTrace >= _traces.length) {
-            _currentTrace = 0;
+        if (_traceCapacity > 0) {
+            trace(_state.PC, decode(_state.PC));
         }
-        trace.read(_state.PC, bus);
 
         //
         // CPU Breakpoints
@@ -111,7 +234,7 @@ public class CPU6510Debugger extends CPU6510 {
             if (_stop) {
                 throw new DebuggerExit("C64 has been stopped");
             }
-            if (_breakpoints.contains(_state.PC)) {
+            if (_breakpoints.contains(_state.PC) || _executed == _suspendAt) {
                 _suspend = true;
             }
             if (_suspend) {
@@ -119,9 +242,74 @@ public class CPU6510Debugger extends CPU6510 {
             }
         }
 
+        _executed++;
         super.execute();
     }
 
+    /**
+     * Decode the opcode at the given address. Uses the cached decoded opcode, if possible.
+     *
+     * @param pc
+     *         address of opcode
+     * @return decoded opcode, see {@link #_decoded}
+     */
+    private int decode(int pc) {
+        if (_c64Bus == null) {
+            // Unknown bus: Writes can not be tracked.
+            return readOpcode(pc);
+        }
+
+        int mode = _c64Bus.getMode();
+        int result = _decoded[pc];
+        if (result == 0 || result >>> 26 != mode) {
+            result = readOpcode(pc) | mode << 26;
+            _decoded[pc] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Read the opcode incl. argument at the given address.
+     * Stops before IO pages, if connected to a {@link C64Bus}.
+     *
+     * @param pc
+     *         address of opcode
+     * @return decoded opcode without mode, see {@link #_decoded}
+     */
+    private int readOpcode(int pc) {
+        int size = 0;
+        int bytes = 0;
+        for (int expected = 1; size < expected; size++) {
+            int addr = (pc + size) & 0xFFFF;
+            if (_c64Bus != null && !_c64Bus.isMemory(addr)) {
+                break;
+            }
+            int b = bus.read(addr);
+            if (size == 0) {
+                expected = OPCODES[b].getSize();
+            }
+            bytes |= b << (size * 8);
+        }
+        return size << 24 | bytes;
+    }
+
+    /**
+     * Store a trace.
+     *
+     * @param pc
+     *         address of opcode
+     * @param decoded
+     *         decoded opcode, see {@link #_decoded}
+     */
+    private void trace(int pc, int decoded) {
+        int index = 2 * _currentTrace;
+        _traces[index] = _clock != null ? _clock.getTick() : -1;
+        _traces[index + 1] = (long) (decoded & 0x3FFFFFF) << 16 | pc;
+        if (++_currentTrace >= _traceCapacity) {
+            _currentTrace = 0;
+        }
+    }
+
     private void waitForResume() {
         try {
             // wait for a resume
@@ -190,18 +378,59 @@ public class CPU6510Debugger extends CPU6510 {
         }
     }
 
+    /**
+     * Suspend cpu execution after the given number of opcodes.
+     *
+     * @param opcodes
+     *         number of opcodes to execute before suspending
+     * @require opcodes >= 0
+     */
+    public void suspendAfter(long opcodes) {
+        assert opcodes >= 0 : "Precondition: opcodes >= 0";
+
+        synchronized (_suspendLock) {
+            _suspendAt = _executed + opcodes;
+        }
+    }
+
+    /**
+     * Number of executed opcodes. Does not include interrupts.
+     */
+    public long getExecuted() {
+        return _executed;
+    }
+
     public void addBreakpoint(int addr) {
         synchronized (_suspendLock) {
             _breakpoints.add(addr);
         }
     }
 
+    /**
+     * Index of the next trace.
+     */
     public int getCurrentTrace() {
         return _currentTrace;
     }
 
-    public Trace[] getTraces() {
-        return _traces;
+    /**
+     * Number of traces kept.
+     */
+    public int getTraceCapacity() {
+        return _traceCapacity;
+    }
+
+    /**
+     * Trace.
+     *
+     * @param index
+     *         index of trace
+     * @require index >= 0 && index < getTraceCapacity()
+     */
+    public Trace getTrace(int index) {
+        long tick = _traces[2 * index];
+        long packed = _traces[2 * index + 1];
+        return new Trace(tick, (int) packed & 0xFFFF, (int) (packed >>> 40) & 0x03, (int) (packed >>> 16) & 0xFFFFFF);
     }
 
     @Override
@@ -209,12 +438,12 @@ public class CPU6510Debugger extends CPU6510 {
         StringBuilder result = new StringBuilder();
         result.append(getClass().getSimpleName());
         result.append(":\n");
-        for (int i = 20; i > 0; i--) {
+        for (int i = Math.min(20, _traceCapacity); i > 0; i--) {
             int t = _currentTrace - i;
             if (t < 0) {
-                t += _traces.length;
+                t += _traceCapacity;
             }
-            result.append(_traces[t]);
+            result.append(getTrace(t));
         }
 
         return result.toString();
@@ -4,6 +4,9 @@ import de.heiden.c64dt.bytes.HexUtil;
 
 /**
  * State of CPU.
+ * <p>
+ * The flags N and Z are evaluated lazily: Just the last result is stored,
+ * the flags are computed from it only when needed, e.g. for branches or {@link #getP()}.
  */
 public final class CPU6510State {
     /**
@@ -29,7 +32,6 @@ public final class CPU6510State {
     public int S;
 
     public boolean C; // status P: carry
-    public boolean Z; // status P: zero
     /**
      * Interrupt inhibit flag.
      * Read only access from outside.
@@ -39,7 +41,13 @@ public final class CPU6510State {
     public boolean D; // status P: decimal
     public boolean B; // status P: break
     public boolean V; // status P: overflow
-    public boolean N; // status P: negative
+
+    /**
+     * Last result, which determines the flags N and Z.
+     * Z is set, if the lower 8 bits are 0. N is set, if bit 7 or bit 8 is set.
+     * Results are stored as bytes, bit 8 is used only to represent N and Z being both set.
+     */
+    private int nz;
 
     public int A; // accumulator
 
@@ -166,12 +174,11 @@ public final class CPU6510State {
         assert p >= 0 && p < 0x100 : "Precondition: p >= 0 && p < 0x100";
 
         C = (p & C_BIT) != 0;
-        Z = (p & Z_BIT) != 0;
         I = (p & I_BIT) != 0;
         D = (p & D_BIT) != 0;
         B = true;
         V = (p & V_BIT) != 0;
-        N = (p & N_BIT) != 0;
+        nz = nz((p & N_BIT) != 0, (p & Z_BIT) != 0);
     }
 
     /**
@@ -182,7 +189,7 @@ public final class CPU6510State {
         if (C) {
             p |= C_BIT;
         }
-        if (Z) {
+        if (isZ()) {
             p |= Z_BIT;
         }
         if (I) {
@@ -198,7 +205,7 @@ public final class CPU6510State {
         if (V) {
             p |= V_BIT;
         }
-        if (N) {
+        if (isN()) {
             p |= N_BIT;
         }
 
@@ -209,15 +216,52 @@ public final class CPU6510State {
     // status register related functionality
     //
 
+    /**
+     * Negative flag.
+     */
+    public boolean isN() {
+        return (nz & 0x180) != 0;
+    }
+
+    /**
+     * Set negative flag.
+     */
+    public void setN(boolean n) {
+        nz = nz(n, isZ());
+    }
+
+    /**
+     * Zero flag.
+     */
+    public boolean isZ() {
+        return (nz & 0xFF) == 0;
+    }
+
+    /**
+     * Set zero flag.
+     */
+    public void setZ(boolean z) {
+        nz = nz(isN(), z);
+    }
+
+    /**
+     * Result representing the given flags N and Z.
+     */
+    private static int nz(boolean n, boolean z) {
+        if (z) {
+            return n ? 0x100 : 0x00;
+        }
+        return n ? 0x80 : 0x01;
+    }
+
     /**
      * Set N and Z of P for value.
      * Used for LDA etc.
      */
     public void setZeroNegativeP(int value) {
-        assert value >= 0 && value <= 0x100 : "Precondition: value >= 0 && value <= 0x100";
+        assert value >= 0 && value < 0x100 : "Precondition: value >= 0 && value < 0x100";
 
-        Z = value == 0;
-        N = (value & 0x80) != 0;
+        nz = value;
     }
 
     /**
@@ -227,9 +271,8 @@ public final class CPU6510State {
     public void setZeroOverflowNegativeP(int value, boolean z) {
         assert value >= 0 && value <= 0x100 : "Precondition: value >= 0 && value <= 0x100";
 
-        Z = z;
         V = (value & 0x40) != 0;
-        N = (value & 0x80) != 0;
+        nz = nz((value & 0x80) != 0, z);
     }
 
     /**
@@ -238,8 +281,7 @@ public final class CPU6510State {
      */
     public void setCarryZeroNegativeP(int value, boolean c) {
         C = c;
-        Z = (value & 0xFF) == 0;
-        N = (value & 0x80) != 0;
+        nz = value & 0xFF;
     }
 
     /**
@@ -255,9 +297,8 @@ public final class CPU6510State {
      */
     public void setCarryZeroOverflowNegativeP(int s1, int s2, int sum) {
         C = (sum & 0x100) != 0;
-        Z = (sum & 0xFF) == 0;
         V = ((s1 ^ sum) & (s2 ^ sum) & 0x80) != 0;
-        N = (sum & 0x80) != 0;
+        nz = sum & 0xFF;
     }
 
     //
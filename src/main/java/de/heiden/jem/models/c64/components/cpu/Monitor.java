@@ -27,13 +27,13 @@ public class Monitor {
         result.append(" Y=");
         result.append(HexUtil.hexByte(state.Y));
         result.append(" P=");
-        result.append(state.N ? "N" : "n");
+        result.append(state.isN() ? "N" : "n");
         result.append(state.V ? "V" : "v");
         result.append("1");
         result.append(state.B ? "B" : "b");
         result.append(state.D ? "D" : "d");
         result.append(state.I ? "I" : "i");
-        result.append(state.Z ? "Z" : "z");
+        result.append(state.isZ() ? "Z" : "z");
         result.append(state.C ? "C" : "c");
         if (state.NMI) {
             result.append(" NMI");
@@ -3,50 +3,54 @@ package de.heiden.jem.models.c64.components.cpu;
 import de.heiden.c64dt.assembler.CodeBuffer;
 import de.heiden.c64dt.assembler.Disassembler;
 import de.heiden.c64dt.assembler.ICodeBuffer;
-import de.heiden.jem.components.bus.BusDevice;
 
 import java.io.IOException;
 import java.io.StringWriter;
 
-import static de.heiden.c64dt.assembler.Opcode.OPCODES;
-import static java.lang.System.arraycopy;
-
 /**
  * Data of a single executed opcode for execution tracing.
- * Simple data bean, which can be easily reused.
+ * Simple data bean, unpacked from the trace ring of {@link CPU6510Debugger}.
  */
 public final class Trace {
+    /**
+     * Tick at the start of the opcode, -1 if unknown.
+     */
+    public final long tick;
+
     /**
      * Address of opcode.
      */
-    public int address;
+    public final int address;
 
     /**
-     * Size of opcode incl. argument.
+     * Size of opcode incl. argument, 0 if not read, e.g. in IO pages.
      */
-    public int size = 0;
+    public final int size;
 
     /**
      * Byte representation of opcode incl. argument.
      */
-    public final byte[] bytes = new byte[3];
+    public final byte[] bytes;
 
     /**
-     * Read trace data from the bus.
+     * Constructor.
      *
-     * @param pc
-     *         PC, address to read from.
-     * @param bus
-     *         Bus.
+     * @param tick
+     *         tick at the start of the opcode, -1 if unknown
+     * @param address
+     *         address of opcode
+     * @param size
+     *         size of opcode incl. argument
+     * @param bytes
+     *         opcode incl. argument, little endian
      */
-    public void read(int pc, BusDevice bus) {
-        address = pc;
-
-        var opcode = OPCODES[bus.read(pc)];
-        size = opcode.getSize();
-        for (int i = 0; i < opcode.getSize(); i++) {
-            bytes[i] = (byte) bus.read(pc);
-            pc = (pc + 1) & 0xFFFF;
+    public Trace(long tick, int address, int size, int bytes) {
+        this.tick = tick;
+        this.address = address;
+        this.size = size;
+        this.bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            this.bytes[i] = (byte) (bytes >> (i * 8));
         }
     }
 
@@ -54,12 +58,7 @@ public final class Trace {
      * Return opcode representation as CodeBuffer.
      */
     public ICodeBuffer toCodeBuffer() {
-        var truncated = bytes;
-        if (truncated.length > size) {
-            truncated = new byte[size];
-            arraycopy(bytes, 0, truncated, 0, size);
-        }
-        return new CodeBuffer(address, truncated);
+        return new CodeBuffer(address, bytes);
     }
 
     /**
@@ -3,17 +3,22 @@ package de.heiden.jem.models.c64.components.keyboard;
 import de.heiden.jem.components.ports.InputOutputPort;
 import de.heiden.jem.components.ports.OutputPort;
 import de.heiden.jem.components.ports.OutputPortImpl;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
 import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Keyboard.
  * <p>
  * TODO mapping of @, :, /, arrow up, ;, *, pound, commodore, run stop, arrow left
  * TODO C64 like mapping of -, +, home, shift lock, control?
  */
-public class Keyboard implements IKeyboard {
+public class Keyboard implements IKeyboard, Stateful {
     /**
      * Logger.
      */
@@ -101,6 +106,40 @@ public class Keyboard implements IKeyboard {
         }
     }
 
+    //
+    // Snapshot
+    //
+
+    /**
+     * Save the key matrix and the state of the restore key.
+     *
+     * @param out
+     *         output to write the state to
+     */
+    @Override
+    public void save(@Nonnull DataOutput out) throws IOException {
+        for (int row : matrix) {
+            out.writeByte(row);
+        }
+        out.writeByte(nmi.outputData());
+    }
+
+    /**
+     * Restore the key matrix and the state of the restore key.
+     * Restore the keyboard after the cia driving its ports.
+     *
+     * @param in
+     *         input to read the state from, see {@link #save(DataOutput)}
+     */
+    @Override
+    public void restore(@Nonnull DataInput in) throws IOException {
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = in.readUnsignedByte();
+        }
+        updatePorts();
+        nmi.setOutputData(in.readUnsignedByte());
+    }
+
     /**
      * Update ports from matrix.
      * <p>
@@ -1,20 +1,48 @@
 package de.heiden.jem.models.c64.components.memory;
 
 import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
+import jakarta.annotation.Nonnull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.function.IntConsumer;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
 
 /**
  * Byte memory-based bus device.
+ * <p>
+ * The content is stored packed in memory segments, to use as few cache lines as possible.
+ * By default, the content is backed by a byte array on the heap.
+ * Alternatively, it may be allocated off-heap or be shared read-only between many instances.
+ * <p>
+ * The content is organized in pages of 256 bytes.
+ * Read-only pages are shared with other instances, they are copied before they get modified (copy-on-write).
  */
-public abstract class AbstractMemory implements BusDevice {
+public abstract class AbstractMemory implements BusDevice, Stateful {
+    /**
+     * Size of a page.
+     */
+    private static final int PAGE = 0x100;
+
     /**
      * Address mask.
      */
     protected final int mask;
 
     /**
-     * Memory content.
+     * Pages of the content. Read-only pages are shared with other instances.
      */
-    protected final int[] memory;
+    private final MemorySegment[] pages;
+
+    /**
+     * Listener for pages which have been replaced by a copy, e.g. the bus reading directly from the pages.
+     */
+    private IntConsumer pageListener = page -> {};
 
     /**
      * Constructor.
@@ -24,12 +52,7 @@ public abstract class AbstractMemory implements BusDevice {
      * @require size >= 0 && size <= 0x10000
      */
     protected AbstractMemory(int size) {
-        assert size >= 0 && size <= 0x10000;
-        // assert that size is a power of 2
-        assert Integer.bitCount(size) == 1;
-
-        mask = size - 1;
-        memory = new int[size];
+        this(MemorySegment.ofArray(new byte[size]));
     }
 
     /**
@@ -40,10 +63,27 @@ public abstract class AbstractMemory implements BusDevice {
      * @require content.length >= 0 && content.length <= 0x10000
      */
     protected AbstractMemory(byte[] content) {
-        this(content.length);
+        this(MemorySegment.ofArray(content.clone()));
+    }
+
+    /**
+     * Constructor.
+     * The memory segment is used directly, e.g. an off-heap segment or a read-only segment shared with other instances.
+     *
+     * @param memory
+     *         memory content
+     * @require memory.byteSize() >= 0 && memory.byteSize() <= 0x10000
+     */
+    protected AbstractMemory(@Nonnull MemorySegment memory) {
+        long size = memory.byteSize();
+        assert size >= 0 && size <= 0x10000;
+        // assert that size is a power of 2
+        assert Long.bitCount(size) == 1;
 
-        for (int i = 0; i < content.length; i++) {
-            memory[i] = content[i] & 0xFF;
+        this.mask = (int) size - 1;
+        this.pages = new MemorySegment[(mask + PAGE) / PAGE];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = memory.asSlice((long) page * PAGE, Math.min(PAGE, size));
         }
     }
 
@@ -56,4 +96,162 @@ public abstract class AbstractMemory implements BusDevice {
         assert mask >= 0 && mask < 0x10000 : "result >= 0 && result < 0x10000";
         return mask;
     }
+
+    /**
+     * View of the 256 byte page containing the given address, e.g. for direct reads by the bus.
+     * The view stays valid until the page gets copied, see {@link #setPageListener(IntConsumer)}.
+     *
+     * @param address
+     *         address in the page
+     * @return view of the page or null, if the memory is smaller than a page
+     */
+    public final MemorySegment page(int address) {
+        if (mask < 0xFF) {
+            return null;
+        }
+        return pages[(address & mask) >> 8];
+    }
+
+    /**
+     * Set the listener for pages which have been replaced by a copy, because they were shared read-only.
+     * Views of the replaced pages are outdated, so they have to be re-requested via {@link #page(int)}.
+     *
+     * @param pageListener
+     *         listener, gets the number of the replaced page
+     */
+    public void setPageListener(@Nonnull IntConsumer pageListener) {
+        this.pageListener = pageListener;
+    }
+
+    /**
+     * Read byte from memory.
+     *
+     * @param address
+     *         address to read byte from
+     * @ensure result >= 0 && result < 0x100
+     */
+    protected final int get(int address) {
+        int index = address & mask;
+        return pages[index >> 8].get(JAVA_BYTE, index & 0xFF) & 0xFF;
+    }
+
+    /**
+     * Write byte to memory.
+     * Copies the page before, if it is shared read-only.
+     *
+     * @param value
+     *         byte to write
+     * @param address
+     *         address to write byte to
+     * @require value >= 0 && value < 0x100
+     */
+    protected final void set(int value, int address) {
+        int index = address & mask;
+        var page = pages[index >> 8];
+        if (page.isReadOnly()) {
+            page = copy(index >> 8);
+        }
+        page.set(JAVA_BYTE, index & 0xFF, (byte) value);
+    }
+
+    /**
+     * Replace a shared read-only page by a private copy.
+     *
+     * @param page
+     *         number of the page
+     * @return copy of the page
+     */
+    private MemorySegment copy(int page) {
+        var copy = MemorySegment.ofArray(pages[page].toArray(JAVA_BYTE));
+        pages[page] = copy;
+        pageListener.accept(page);
+        return copy;
+    }
+
+    /**
+     * Create a snapshot of the content.
+     *
+     * @param arena
+     *         arena to allocate the snapshot in
+     * @ensure result.byteSize() == mask() + 1
+     */
+    public @Nonnull MemorySegment snapshot(@Nonnull Arena arena) {
+        var result = arena.allocate(mask + 1);
+        for (int page = 0; page < pages.length; page++) {
+            result.asSlice((long) page * PAGE, pages[page].byteSize()).copyFrom(pages[page]);
+        }
+        return result;
+    }
+
+    /**
+     * Restore the content from a snapshot.
+     *
+     * @param snapshot
+     *         snapshot created by {@link #snapshot(Arena)}
+     * @require snapshot.byteSize() == mask() + 1
+     */
+    public void restore(@Nonnull MemorySegment snapshot) {
+        assert snapshot.byteSize() == mask + 1 : "Precondition: snapshot.byteSize() == mask() + 1";
+
+        for (int page = 0; page < pages.length; page++) {
+            var content = snapshot.asSlice((long) page * PAGE, pages[page].byteSize());
+            if (pages[page].isReadOnly()) {
+                // Do not copy the page just to overwrite it.
+                pages[page] = MemorySegment.ofArray(content.toArray(JAVA_BYTE));
+                pageListener.accept(page);
+            } else {
+                pages[page].copyFrom(content);
+            }
+        }
+    }
+
+    /**
+     * Share the content, e.g. for a snapshot.
+     * The pages are not copied, but turned read-only, so they get copied before they get modified the next time.
+     * Pages which have not been modified since they have been shared the last time are shared again.
+     *
+     * @return read-only pages
+     * @ensure result.length == (mask() + 0x100) / 0x100
+     */
+    public @Nonnull MemorySegment[] share() {
+        for (int page = 0; page < pages.length; page++) {
+            if (!pages[page].isReadOnly()) {
+                // The view still reads the same content, so it needs not to be replaced for readers.
+                pages[page] = pages[page].asReadOnly();
+            }
+        }
+        return pages.clone();
+    }
+
+    /**
+     * Restore the content from {@link #share() shared} pages.
+     * The pages are not copied, but shared until they get modified.
+     *
+     * @param shared
+     *         read-only pages
+     * @require shared.length == (mask() + 0x100) / 0x100
+     */
+    public void restore(@Nonnull MemorySegment[] shared) {
+        assert shared.length == pages.length : "Precondition: shared.length == (mask() + 0x100) / 0x100";
+
+        for (int page = 0; page < pages.length; page++) {
+            assert shared[page].isReadOnly() && shared[page].byteSize() == pages[page].byteSize();
+            pages[page] = shared[page];
+            pageListener.accept(page);
+        }
+    }
+
+    @Override
+    public void save(@Nonnull DataOutput out) throws IOException {
+        for (var page : pages) {
+            out.write(page.toArray(JAVA_BYTE));
+        }
+    }
+
+    @Override
+    public void restore(@Nonnull DataInput in) throws IOException {
+        var content = new byte[mask + 1];
+        in.readFully(content);
+        restore(MemorySegment.ofArray(content));
+    }
 }
@@ -1,5 +1,9 @@
 package de.heiden.jem.models.c64.components.memory;
 
+import jakarta.annotation.Nonnull;
+
+import java.lang.foreign.MemorySegment;
+
 /**
  * 4 Bit-Color RAM.
  */
@@ -26,6 +30,17 @@ public class ColorRAM extends AbstractMemory {
         super(content);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param memory
+     *         RAM content, e.g. allocated off-heap
+     * @require memory.byteSize() >= 0 && memory.byteSize() <= 0x10000
+     */
+    public ColorRAM(@Nonnull MemorySegment memory) {
+        super(memory);
+    }
+
     /**
      * Write byte to RAM.
      *
@@ -40,7 +55,7 @@ public class ColorRAM extends AbstractMemory {
         assert value >= 0 && value < 0x100 : "value >= 0 && value < 0x100";
 
         // high nibble is always 0
-        memory[address & mask] = value & 0x0F;
+        set(value & 0x0F, address);
     }
 
     /**
@@ -52,7 +67,7 @@ public class ColorRAM extends AbstractMemory {
      */
     @Override
     public final int read(int address) {
-        int result = memory[address & mask];
+        int result = get(address);
         assert result >= 0 && result < 0x10 : "result >= 0 && result < 0x10";
         return result;
     }
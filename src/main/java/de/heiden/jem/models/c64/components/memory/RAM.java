@@ -1,5 +1,9 @@
 package de.heiden.jem.models.c64.components.memory;
 
+import jakarta.annotation.Nonnull;
+
+import java.lang.foreign.MemorySegment;
+
 /**
  * 8 Bit-RAM.
  */
@@ -26,6 +30,17 @@ public class RAM extends AbstractMemory {
         super(content);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param memory
+     *         RAM content, e.g. allocated off-heap
+     * @require memory.byteSize() >= 0 && memory.byteSize() <= 0x10000
+     */
+    public RAM(@Nonnull MemorySegment memory) {
+        super(memory);
+    }
+
     /**
      * Write byte to RAM.
      *
@@ -39,7 +54,7 @@ public class RAM extends AbstractMemory {
     public final void write(int value, int address) {
         assert value >= 0 && value < 0x100 : "value >= 0 && value < 0x100";
 
-        memory[address & mask] = value;
+        set(value, address);
     }
 
     /**
@@ -51,7 +66,7 @@ public class RAM extends AbstractMemory {
      */
     @Override
     public final int read(int address) {
-        int result = memory[address & mask];
+        int result = get(address);
         assert result >= 0 && result < 0x100 : "result >= 0 && result < 0x100";
         return result;
     }
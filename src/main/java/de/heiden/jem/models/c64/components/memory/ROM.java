@@ -1,7 +1,14 @@
 package de.heiden.jem.models.c64.components.memory;
 
+import jakarta.annotation.Nonnull;
+
+import java.lang.foreign.MemorySegment;
+
 /**
  * 8 Bit-ROM.
+ * <p>
+ * The content may be a read-only ROM image shared with other instances, see {@link ROMLoader}.
+ * Patching such a ROM copies just the patched page, so patches are not visible to the other instances.
  */
 public final class ROM extends AbstractMemory implements Patchable {
     /**
@@ -15,6 +22,17 @@ public final class ROM extends AbstractMemory implements Patchable {
         super(content);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param memory
+     *         ROM content, e.g. a read-only ROM image shared with other instances
+     * @require memory.byteSize() >= 0 && memory.byteSize() <= 0x10000
+     */
+    public ROM(@Nonnull MemorySegment memory) {
+        super(memory);
+    }
+
     /**
      * Write byte to ROM.
      *
@@ -31,6 +49,8 @@ public final class ROM extends AbstractMemory implements Patchable {
 
     /**
      * Patch byte in ROM.
+     * A page shared read-only with other instances is copied before the first patch,
+     * see {@link #setPageListener(java.util.function.IntConsumer)}.
      *
      * @param value
      *         byte to write
@@ -43,7 +63,7 @@ public final class ROM extends AbstractMemory implements Patchable {
         // 0x100 is used to escape emulation in the cpu
         assert value >= 0 && value < 0x100 : "value >= 0 && value < 0x100";
 
-        memory[address & mask] = value;
+        set(value, address);
     }
 
     /**
@@ -55,7 +75,7 @@ public final class ROM extends AbstractMemory implements Patchable {
      */
     @Override
     public int read(int address) {
-        int result = memory[address & mask];
+        int result = get(address);
         // 0x100 is used to escape emulation in the cpu
         assert result >= 0x00 && result < 0x100 : "result >= 0x00 && result < 0x100";
         return result;
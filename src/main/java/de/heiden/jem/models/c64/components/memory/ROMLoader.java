@@ -4,11 +4,23 @@ import jakarta.annotation.Nonnull;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loader for ROM contents.
+ * <p>
+ * Each ROM image is loaded just once into a read-only off-heap segment, which is shared by all ROMs created from it.
+ * A ROM copies the patched page before its first patch, see {@link ROM#patch(int, int)}.
  */
 public class ROMLoader {
+    /**
+     * Shared ROM images by filename.
+     */
+    private static final Map<String, Image> SHARED = new ConcurrentHashMap<>();
+
     /**
      * Basic ROM.
      *
@@ -17,8 +29,7 @@ public class ROMLoader {
      * @ensure result != null
      */
     public static @Nonnull ROM basic(String filename) throws Exception {
-        var content = load(0x2000, filename);
-        return new ROM(content);
+        return shared(0x2000, filename).rom();
     }
 
     /**
@@ -29,8 +40,7 @@ public class ROMLoader {
      * @ensure result != null
      */
     public static @Nonnull ROM kernel(String filename) throws Exception {
-        var content = load(0x2000, filename);
-        return new ROM(content);
+        return shared(0x2000, filename).rom();
     }
 
     /**
@@ -41,8 +51,7 @@ public class ROMLoader {
      * @ensure result != null
      */
     public static @Nonnull ROM character(String filename) throws Exception {
-        var content = load(0x1000, filename);
-        return new ROM(content); // TODO correct?
+        return shared(0x1000, filename).rom(); // TODO correct?
     }
 
     /**
@@ -53,8 +62,30 @@ public class ROMLoader {
      * @ensure result != null
      */
     public static @Nonnull ROM pla(String filename) throws Exception {
-        var content = load(0x1000, filename);
-        return new ROM(content);
+        return shared(0x1000, filename).rom();
+    }
+
+    /**
+     * Shared ROM image. Loads it, if not done yet.
+     *
+     * @param length
+     *         of expected content
+     * @param filename
+     *         filename of content
+     * @throws Exception
+     */
+    protected static @Nonnull Image shared(int length, String filename) throws Exception {
+        var result = SHARED.get(filename);
+        if (result == null) {
+            var image = Image.create(load(length, filename));
+            // Concurrent loads are harmless: Just the first one gets shared.
+            result = SHARED.computeIfAbsent(filename, key -> image);
+        }
+
+        if (result.content().byteSize() != length) {
+            throw new Exception("ROM image '%s' has not the expected length".formatted(filename));
+        }
+        return result;
     }
 
     /**
@@ -83,6 +114,32 @@ public class ROMLoader {
         }
     }
 
+    /**
+     * ROM image shared by all ROMs created from it.
+     *
+     * @param content
+     *         read-only content of the image
+     */
+    protected record Image(MemorySegment content) {
+        /**
+         * Store the image off-heap.
+         * Images are loaded just once, so they are never released.
+         *
+         * @param content
+         *         content of the image
+         */
+        static @Nonnull Image create(byte[] content) {
+            return new Image(Arena.global().allocate(content.length).copyFrom(MemorySegment.ofArray(content)).asReadOnly());
+        }
+
+        /**
+         * Create a ROM reading from the image.
+         */
+        @Nonnull ROM rom() {
+            return new ROM(content);
+        }
+    }
+
     //
     // public constants
     //
@@ -0,0 +1,55 @@
+package de.heiden.jem.models.c64.components.patch;
+
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.models.c64.components.cpu.CPU6510State;
+import de.heiden.jem.models.c64.components.cpu.Patch;
+import de.heiden.jem.models.c64.components.snapshot.Snapshot;
+import jakarta.annotation.Nonnull;
+
+import java.util.function.Supplier;
+
+/**
+ * Captures a snapshot, when the patched opcode is executed the first time.
+ * The restored cpu continues with executing the replaced opcode.
+ * Patches are not part of snapshots, so if the patched opcode is in RAM, the restored C64 needs the same patch.
+ */
+public class CaptureSnapshot extends Patch {
+    /**
+     * Captures the snapshot.
+     */
+    private final Supplier<Snapshot> capture;
+
+    /**
+     * Captured snapshot, if any.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param addr
+     *         Address of the opcode to capture the snapshot at
+     * @param capture
+     *         Captures the snapshot, e.g. C64::capture
+     */
+    public CaptureSnapshot(int addr, @Nonnull Supplier<Snapshot> capture) {
+        super(addr);
+
+        this.capture = capture;
+    }
+
+    /**
+     * Captured snapshot, or null, if the patched opcode has not been executed yet.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    protected int execute(CPU6510State state, BusDevice bus) {
+        if (snapshot == null) {
+            snapshot = capture.get();
+        }
+        return replaced;
+    }
+}
@@ -0,0 +1,124 @@
+package de.heiden.jem.models.c64.components.patch;
+
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.components.bus.WordBus;
+import de.heiden.jem.models.c64.components.cpu.CPU6510State;
+import de.heiden.jem.models.c64.components.cpu.Patch;
+import de.heiden.jem.models.c64.components.snapshot.InputRecorder;
+import de.heiden.jem.models.c64.components.snapshot.InputReplay;
+import jakarta.annotation.Nonnull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static de.heiden.jem.models.c64.components.patch.FileUtil.read;
+
+/**
+ * Replaces standard C64 load routine at $F4A5.
+ * Intercepts load routine at $F4C4 directly after printing "SEARCHING FOR".
+ * Either loads files from a given directory and records their content with an {@link InputRecorder}
+ * or loads the content recorded in the journal of an {@link InputReplay}.
+ */
+public class JournaledLoad extends Patch {
+    /**
+     * Base directory to load files from, when recording.
+     */
+    private final Path baseDir;
+
+    /**
+     * Recorder, when recording.
+     */
+    private final InputRecorder recorder;
+
+    /**
+     * Replay, when replaying.
+     */
+    private final InputReplay replay;
+
+    /**
+     * Constructor for recording.
+     *
+     * @param baseDirectory
+     *         Base directory to load files from
+     * @param recorder
+     *         Recorder
+     */
+    public JournaledLoad(@Nonnull Path baseDirectory, @Nonnull InputRecorder recorder) {
+        super(0xF4C4);
+
+        this.baseDir = baseDirectory;
+        this.recorder = recorder;
+        this.replay = null;
+    }
+
+    /**
+     * Constructor for replaying.
+     *
+     * @param replay
+     *         Replay
+     */
+    public JournaledLoad(@Nonnull InputReplay replay) {
+        super(0xF4C4);
+
+        this.baseDir = null;
+        this.recorder = null;
+        this.replay = replay;
+    }
+
+    @Override
+    protected int execute(CPU6510State state, BusDevice bus) {
+        var wordBus = new WordBus(bus);
+
+        byte[] content;
+        if (replay != null) {
+            content = replay.nextLoad();
+            if (content == null) {
+                // No more loads recorded.
+                return RTS;
+            }
+        } else {
+            // Read filename from ($BB), length ($B7)
+            var filename = StringUtil.read(bus, wordBus.readWord(0xBB), bus.read(0xB7));
+            if (!filename.contains(".")) {
+                filename = filename.toLowerCase() + ".prg";
+            }
+
+            try {
+                content = Files.readAllBytes(baseDir.resolve(filename));
+            } catch (NoSuchFileException e) {
+                logger.warn("File not found {}.", filename, e);
+                content = new byte[0];
+            } catch (IOException e) {
+                logger.error("Failed to load {}.", filename, e);
+                return RTS;
+            }
+            recorder.recordLoad(content);
+        }
+
+        if (content.length == 0) {
+            // Continue at $F704: File not found.
+            state.PC = 0xF704;
+            return DO_NOT_EXECUTE;
+        }
+
+        try {
+            var file = new ByteArrayInputStream(content);
+            int endAddress = bus.read(0xB9) == 0 ?
+                    read(file, wordBus.readWord(0xC3), bus) :
+                    read(file, bus);
+
+            wordBus.writeWord(0xAE, endAddress);
+
+            // Continue at $F5A9: Successful load.
+            state.PC = 0xF5A9;
+            return DO_NOT_EXECUTE;
+
+        } catch (IOException e) {
+            logger.error("Failed to load program.", e);
+            return RTS;
+        }
+    }
+}
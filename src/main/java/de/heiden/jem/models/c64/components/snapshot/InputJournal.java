@@ -0,0 +1,239 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.models.c64.components.memory.RAM;
+import jakarta.annotation.Nonnull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Journal of the external inputs of a C64, keyed by the tick at which they have been applied,
+ * see {@link InputRecorder} and {@link InputReplay}.
+ * Contains checksums of the RAM too, to detect diverging replays.
+ * <p>
+ * Replaying a journal reproduces a run exactly, if it starts from the same state as the recording,
+ * e.g. from a fresh C64 or from the same {@link Snapshot}.
+ * <p>
+ * Format of {@link #write(OutputStream) written} journals:
+ * Magic {@link #MAGIC}, {@link #VERSION version} and the deflated entries.
+ */
+public final class InputJournal {
+    /**
+     * Magic number at the start of written journals: "JEMJ".
+     */
+    public static final int MAGIC = 0x4A454D4A;
+
+    /**
+     * Version of the format. Has to be incremented on any change of the entries or of the keys.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Entries, ordered by tick.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * Constructor for an empty journal.
+     */
+    public InputJournal() {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param entries
+     *         entries, ordered by tick
+     */
+    private InputJournal(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Add an entry.
+     *
+     * @param entry
+     *         entry
+     * @require entry.tick() >= tick of the last entry
+     */
+    synchronized void add(@Nonnull Entry entry) {
+        assert entries.isEmpty() || entry.tick() >= entries.getLast().tick() :
+                "Precondition: entry.tick() >= tick of the last entry";
+
+        entries.add(entry);
+    }
+
+    /**
+     * Entries, ordered by tick.
+     */
+    public synchronized List<Entry> getEntries() {
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Checksum of the RAM.
+     *
+     * @param ram
+     *         RAM
+     */
+    static int checksum(@Nonnull RAM ram) {
+        var crc = new CRC32();
+        for (int address = 0; address <= ram.mask(); address += 0x100) {
+            crc.update(ram.page(address).asByteBuffer());
+        }
+        return (int) crc.getValue();
+    }
+
+    //
+    // Persistence
+    //
+
+    /**
+     * Write this journal compressed to a stream.
+     *
+     * @param stream
+     *         stream to write to. Will not be closed.
+     */
+    public void write(@Nonnull OutputStream stream) throws IOException {
+        var entries = getEntries();
+
+        var out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            var deflating = new DeflaterOutputStream(stream, deflater);
+            var compressed = new DataOutputStream(deflating);
+            compressed.writeInt(entries.size());
+            for (var entry : entries) {
+                compressed.writeLong(entry.tick());
+                compressed.writeByte(entry.kind().ordinal());
+                compressed.writeInt(entry.value());
+                var data = entry.data();
+                compressed.writeInt(data.length);
+                compressed.write(data);
+            }
+            compressed.flush();
+            deflating.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Read a journal {@link #write(OutputStream) written} to a stream.
+     *
+     * @param stream
+     *         stream to read from. Will not be closed.
+     * @throws IOException
+     *         if the stream does not contain a journal of the current version
+     */
+    public static @Nonnull InputJournal read(@Nonnull InputStream stream) throws IOException {
+        var in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("No input journal.");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported input journal version " + version + ", expected " + VERSION + ".");
+        }
+
+        var inflater = new Inflater();
+        try {
+            var compressed = new DataInputStream(new InflaterInputStream(stream, inflater));
+            int size = compressed.readInt();
+            var entries = new ArrayList<Entry>(size);
+            for (int i = 0; i < size; i++) {
+                long tick = compressed.readLong();
+                var kind = Kind.values()[compressed.readUnsignedByte()];
+                int value = compressed.readInt();
+                var data = new byte[compressed.readInt()];
+                compressed.readFully(data);
+                entries.add(new Entry(tick, kind, value, data));
+            }
+            return new InputJournal(entries);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Save this journal to a file.
+     *
+     * @param file
+     *         file to write to
+     */
+    public void save(@Nonnull Path file) throws IOException {
+        try (var stream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Load a journal from a file.
+     *
+     * @param file
+     *         file {@link #save(Path) saved} before
+     */
+    public static @Nonnull InputJournal load(@Nonnull Path file) throws IOException {
+        try (var stream = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(stream);
+        }
+    }
+
+    /**
+     * Kind of entry.
+     */
+    public enum Kind {
+        /**
+         * Key press, the value is the ordinal of the key.
+         */
+        PRESS,
+
+        /**
+         * Key release, the value is the ordinal of the key.
+         */
+        RELEASE,
+
+        /**
+         * File load, the data is the content of the file, empty if the file has not been found.
+         */
+        LOAD,
+
+        /**
+         * Checksum of the RAM.
+         */
+        CHECKSUM
+    }
+
+    /**
+     * Entry.
+     *
+     * @param tick
+     *         tick at which the input has been applied
+     * @param kind
+     *         kind of entry
+     * @param value
+     *         value, depending on the kind
+     * @param data
+     *         data, depending on the kind, otherwise empty
+     */
+    public record Entry(long tick, Kind kind, int value, byte[] data) {
+    }
+}
@@ -0,0 +1,134 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.models.c64.components.keyboard.IKeyboard;
+import de.heiden.jem.models.c64.components.keyboard.Key;
+import de.heiden.jem.models.c64.components.keyboard.Keyboard;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.patch.JournaledLoad;
+import jakarta.annotation.Nonnull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the external inputs of a C64 into an {@link InputJournal}.
+ * <p>
+ * Key presses and releases may arrive from any thread, e.g. from the GUI.
+ * They are not applied directly, but queued and applied by a clock event every {@link #INPUT_PERIOD} ticks,
+ * so they get applied at a well-defined tick, which is recorded.
+ * File loads are recorded by {@link JournaledLoad}.
+ * The checksum of the RAM is recorded periodically.
+ */
+public final class InputRecorder implements IKeyboard {
+    /**
+     * Number of ticks between applying queued inputs.
+     */
+    public static final int INPUT_PERIOD = 1000;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Keyboard.
+     */
+    private final Keyboard keyboard;
+
+    /**
+     * Journal.
+     */
+    private final InputJournal journal = new InputJournal();
+
+    /**
+     * Inputs not applied yet.
+     */
+    private final Queue<InputJournal.Entry> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor.
+     * Starts recording with the next tick.
+     *
+     * @param clock
+     *         clock
+     * @param keyboard
+     *         keyboard
+     * @param ram
+     *         RAM
+     * @param checksumPeriod
+     *         number of ticks between checksums of the RAM, e.g. the ticks per frame
+     * @require checksumPeriod > 0
+     */
+    public InputRecorder(@Nonnull Clock clock, @Nonnull Keyboard keyboard, @Nonnull RAM ram, int checksumPeriod) {
+        assert checksumPeriod > 0 : "Precondition: checksumPeriod > 0";
+
+        this.clock = clock;
+        this.keyboard = keyboard;
+
+        clock.addClockEvent(clock.getTick() + 1, new ClockEvent("Input recorder") {
+            @Override
+            public void execute(long tick) {
+                for (InputJournal.Entry input; (input = pending.poll()) != null; ) {
+                    apply(input.kind(), Key.values()[input.value()]);
+                    journal.add(new InputJournal.Entry(tick, input.kind(), input.value(), input.data()));
+                }
+                clock.addClockEvent(tick + INPUT_PERIOD, this);
+            }
+        });
+
+        clock.addClockEvent(clock.getTick() + checksumPeriod, new ClockEvent("Input recorder checksum") {
+            @Override
+            public void execute(long tick) {
+                int checksum = InputJournal.checksum(ram);
+                journal.add(new InputJournal.Entry(tick, InputJournal.Kind.CHECKSUM, checksum, new byte[0]));
+                clock.addClockEvent(tick + checksumPeriod, this);
+            }
+        });
+    }
+
+    /**
+     * Journal.
+     */
+    public InputJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Queue a key press. May be called from any thread.
+     */
+    @Override
+    public void press(Key key) {
+        pending.add(new InputJournal.Entry(-1, InputJournal.Kind.PRESS, key.ordinal(), new byte[0]));
+    }
+
+    /**
+     * Queue a key release. May be called from any thread.
+     */
+    @Override
+    public void release(Key key) {
+        pending.add(new InputJournal.Entry(-1, InputJournal.Kind.RELEASE, key.ordinal(), new byte[0]));
+    }
+
+    /**
+     * Record a file load. Has to be called by the cpu thread, e.g. by a patch.
+     *
+     * @param content
+     *         content of the file, empty if the file has not been found
+     */
+    public void recordLoad(@Nonnull byte[] content) {
+        journal.add(new InputJournal.Entry(clock.getTick(), InputJournal.Kind.LOAD, 0, content.clone()));
+    }
+
+    /**
+     * Apply a key press or release to the keyboard.
+     */
+    private void apply(InputJournal.Kind kind, Key key) {
+        if (kind == InputJournal.Kind.PRESS) {
+            keyboard.press(key);
+        } else {
+            keyboard.release(key);
+        }
+    }
+}
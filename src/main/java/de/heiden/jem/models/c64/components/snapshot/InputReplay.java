@@ -0,0 +1,164 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.models.c64.components.keyboard.Key;
+import de.heiden.jem.models.c64.components.keyboard.Keyboard;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.patch.JournaledLoad;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Replays an {@link InputJournal}: Injects the recorded inputs as clock events at the recorded ticks.
+ * File loads are replayed by {@link JournaledLoad}.
+ * The recorded checksums of the RAM are compared to detect, if the replay diverges from the recording.
+ */
+public final class InputReplay {
+    /**
+     * Logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Entries to be injected by clock events, ordered by tick.
+     */
+    private final List<InputJournal.Entry> entries;
+
+    /**
+     * Recorded file loads, ordered by tick.
+     */
+    private final Queue<InputJournal.Entry> loads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Index of the next entry to inject.
+     */
+    private volatile int next = 0;
+
+    /**
+     * Number of checksums compared.
+     */
+    private volatile int checksums = 0;
+
+    /**
+     * Tick of the first divergence from the recording or -1, if none.
+     */
+    private volatile long divergence = -1;
+
+    /**
+     * Constructor.
+     * The replay has to start from the same state as the recording.
+     *
+     * @param clock
+     *         clock
+     * @param keyboard
+     *         keyboard
+     * @param ram
+     *         RAM
+     * @param journal
+     *         journal to replay
+     * @require the clock is before the first entry of the journal
+     */
+    public InputReplay(
+            @Nonnull Clock clock, @Nonnull Keyboard keyboard, @Nonnull RAM ram, @Nonnull InputJournal journal) {
+        this.clock = clock;
+
+        var entries = journal.getEntries();
+        entries.stream()
+                .filter(entry -> entry.kind() == InputJournal.Kind.LOAD)
+                .forEach(loads::add);
+        this.entries = entries.stream()
+                .filter(entry -> entry.kind() != InputJournal.Kind.LOAD)
+                .toList();
+        if (this.entries.isEmpty()) {
+            return;
+        }
+
+        clock.addClockEvent(this.entries.getFirst().tick(), new ClockEvent("Input replay") {
+            @Override
+            public void execute(long tick) {
+                int i = next;
+                for (InputJournal.Entry entry; i < entries.size() && (entry = entries.get(i)).tick() == tick; i++) {
+                    switch (entry.kind()) {
+                        case PRESS -> keyboard.press(Key.values()[entry.value()]);
+                        case RELEASE -> keyboard.release(Key.values()[entry.value()]);
+                        case CHECKSUM -> compare(tick, entry.value(), InputJournal.checksum(ram));
+                        default -> throw new IllegalArgumentException("Unexpected entry " + entry.kind() + ".");
+                    }
+                }
+                next = i;
+                if (i < entries.size()) {
+                    clock.addClockEvent(entries.get(i).tick(), this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Content of the next recorded file load. Has to be called by the cpu thread, e.g. by a patch.
+     *
+     * @return content of the file, empty if the file has not been found, or null, if there are no more loads
+     */
+    public byte[] nextLoad() {
+        var load = loads.poll();
+        if (load == null) {
+            diverged(clock.getTick(), "Load has not been recorded.");
+            return null;
+        }
+        if (load.tick() != clock.getTick()) {
+            diverged(clock.getTick(), "Load has been recorded at tick " + load.tick() + ".");
+        }
+        return load.data();
+    }
+
+    /**
+     * Have all entries been replayed?.
+     */
+    public boolean isFinished() {
+        return next == entries.size() && loads.isEmpty();
+    }
+
+    /**
+     * Number of checksums compared.
+     */
+    public int getChecksums() {
+        return checksums;
+    }
+
+    /**
+     * Tick of the first divergence from the recording or -1, if the replay matches the recording so far.
+     */
+    public long getDivergence() {
+        return divergence;
+    }
+
+    /**
+     * Compare the recorded checksum of the RAM with the current one.
+     */
+    private void compare(long tick, int recorded, int current) {
+        checksums++;
+        if (current != recorded) {
+            diverged(tick, "Checksum of RAM differs.");
+        }
+    }
+
+    /**
+     * The replay diverged from the recording.
+     */
+    private void diverged(long tick, String reason) {
+        if (divergence < 0) {
+            logger.warn("Replay diverged at tick {}: {}", tick, reason);
+            divergence = tick;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.models.c64.components.cpu.C64Bus;
+import de.heiden.jem.models.c64.components.cpu.CPU6510Debugger;
+import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import jakarta.annotation.Nonnull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * Rewind buffer: Periodic checkpoints of a C64 with a {@link CPU6510Debugger}, e.g. each frame.
+ * <p>
+ * The RAM and the color RAM are kept as copy-on-write pages of 256 bytes:
+ * A checkpoint copies just the pages written since the previous checkpoint, see {@link C64Bus#write(int, int)},
+ * and shares all other pages with the previous checkpoint.
+ * If the memory used by the checkpoints exceeds the budget, the oldest checkpoints are dropped.
+ * <p>
+ * To step back, restore the {@link Position#snapshot() snapshot} of a position into a C64 with a debugger cpu
+ * and let it {@link CPU6510Debugger#suspendAfter(long) suspend} after the {@link Position#opcodes() opcodes}.
+ * <p>
+ * {@link #close() Close} the rewind buffer to stop capturing checkpoints.
+ */
+public final class Rewind implements AutoCloseable {
+    /**
+     * Size of a page.
+     */
+    private static final int PAGE = 0x100;
+
+    /**
+     * First page of the color RAM in the address space of the cpu.
+     */
+    private static final int COLOR_RAM_PAGE = 0xD8;
+
+    /**
+     * Estimated size of the header of an array.
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * Estimated size of a reference, assuming compressed references.
+     */
+    private static final int REFERENCE = 4;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * CPU.
+     */
+    private final CPU6510Debugger cpu;
+
+    /**
+     * CPU bus.
+     */
+    private final C64Bus bus;
+
+    /**
+     * RAM.
+     */
+    private final RAM ram;
+
+    /**
+     * Color RAM.
+     */
+    private final ColorRAM colorRam;
+
+    /**
+     * Components after the memories in snapshots.
+     */
+    private final Stateful[] devices;
+
+    /**
+     * Maximum number of bytes used by the checkpoints.
+     */
+    private final long budget;
+
+    /**
+     * Pages of the cpu address space written since the last checkpoint.
+     */
+    private final boolean[] dirty = new boolean[PAGE];
+
+    /**
+     * Checkpoints, the oldest first.
+     */
+    private final ArrayDeque<Checkpoint> checkpoints = new ArrayDeque<>();
+
+    /**
+     * Number of bytes used by the checkpoints.
+     */
+    private long memory = 0;
+
+    /**
+     * Listener tracking the written pages.
+     */
+    private final C64Bus.MemoryListener memoryListener = new C64Bus.MemoryListener() {
+        @Override
+        public void write(int address) {
+            dirty[address >> 8] = true;
+        }
+
+        @Override
+        public void modeChanged(int mode) {
+            // Writes are tracked independently of the mode.
+        }
+    };
+
+    /**
+     * Event requesting the checkpoints.
+     */
+    private final ClockEvent event;
+
+    /**
+     * Has this rewind buffer been closed?
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     * Starts capturing checkpoints with the next tick.
+     *
+     * @param clock
+     *         clock
+     * @param cpu
+     *         debugger cpu, which captures the checkpoints between two opcodes
+     * @param bus
+     *         cpu bus, to track writes
+     * @param ram
+     *         RAM
+     * @param colorRam
+     *         color RAM
+     * @param period
+     *         number of ticks between checkpoints, e.g. the ticks per frame
+     * @param budget
+     *         maximum number of bytes used by the checkpoints
+     * @param devices
+     *         components after the memories in snapshots, in the order to restore them
+     * @require period > 0
+     * @require budget > 0
+     */
+    public Rewind(
+            @Nonnull Clock clock, @Nonnull CPU6510Debugger cpu, @Nonnull C64Bus bus, @Nonnull RAM ram,
+            @Nonnull ColorRAM colorRam, int period, long budget, @Nonnull Stateful... devices) {
+        assert period > 0 : "Precondition: period > 0";
+        assert budget > 0 : "Precondition: budget > 0";
+
+        this.clock = clock;
+        this.cpu = cpu;
+        this.bus = bus;
+        this.ram = ram;
+        this.colorRam = colorRam;
+        this.devices = devices;
+        this.budget = budget;
+
+        // The first checkpoint copies all pages.
+        Arrays.fill(dirty, true);
+        bus.addMemoryListener(memoryListener);
+        for (int page = 0; page < PAGE; page++) {
+            bus.watch(page, true);
+        }
+
+        event = new ClockEvent("Rewind checkpoint") {
+            @Override
+            public void execute(long tick) {
+                cpu.atNextOpcode(Rewind.this::checkpoint);
+                clock.addClockEvent(tick + period, this);
+            }
+        };
+        clock.addClockEvent(clock.getTick() + 1, event);
+    }
+
+    /**
+     * Stop capturing checkpoints. The captured checkpoints stay available.
+     * Has to be called by the cpu thread between two opcodes or while the clock is not running,
+     * because the clock events are not thread safe.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        clock.removeClockEvent(event);
+        bus.removeMemoryListener(memoryListener);
+        for (int page = 0; page < PAGE; page++) {
+            bus.watch(page, false);
+        }
+    }
+
+    /**
+     * Number of checkpoints.
+     */
+    public synchronized int size() {
+        return checkpoints.size();
+    }
+
+    /**
+     * Number of bytes used by the checkpoints.
+     */
+    public synchronized long getMemory() {
+        return memory;
+    }
+
+    /**
+     * Step back the given number of checkpoints, e.g. frames.
+     *
+     * @param checkpoints
+     *         number of checkpoints: 1 = latest checkpoint
+     * @return snapshot of the checkpoint or null, if there are not enough checkpoints
+     * @require checkpoints > 0
+     */
+    public synchronized Snapshot stepBack(int checkpoints) {
+        assert checkpoints > 0 : "Precondition: checkpoints > 0";
+
+        if (checkpoints > this.checkpoints.size()) {
+            return null;
+        }
+        var iterator = this.checkpoints.descendingIterator();
+        for (int i = 1; i < checkpoints; i++) {
+            iterator.next();
+        }
+        return iterator.next().snapshot();
+    }
+
+    /**
+     * Step back the given number of opcodes, counted by the cpu.
+     *
+     * @param opcodes
+     *         number of opcodes
+     * @return position or null, if there is no checkpoint old enough
+     * @require opcodes >= 0
+     */
+    public synchronized Position stepBackOpcodes(long opcodes) {
+        assert opcodes >= 0 : "Precondition: opcodes >= 0";
+
+        long target = cpu.getExecuted() - opcodes;
+        for (var iterator = checkpoints.descendingIterator(); iterator.hasNext(); ) {
+            var checkpoint = iterator.next();
+            if (checkpoint.executed <= target) {
+                return new Position(checkpoint.snapshot(), target - checkpoint.executed);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Capture a checkpoint. Executed by the cpu thread between two opcodes.
+     */
+    private synchronized void checkpoint() {
+        if (closed) {
+            // Requested before closing.
+            return;
+        }
+
+        var previous = checkpoints.peekLast();
+        long copied = 0;
+
+        var ramPages = new byte[(ram.mask() + 1) / PAGE][];
+        for (int page = 0; page < ramPages.length; page++) {
+            if (previous == null || dirty[page]) {
+                ramPages[page] = ram.page(page * PAGE).toArray(JAVA_BYTE);
+                copied += PAGE;
+            } else {
+                ramPages[page] = previous.ramPages[page];
+            }
+        }
+        var colorRamPages = new byte[(colorRam.mask() + 1) / PAGE][];
+        for (int page = 0; page < colorRamPages.length; page++) {
+            if (previous == null || dirty[COLOR_RAM_PAGE + page]) {
+                colorRamPages[page] = colorRam.page(page * PAGE).toArray(JAVA_BYTE);
+                copied += PAGE;
+            } else {
+                colorRamPages[page] = previous.colorRamPages[page];
+            }
+        }
+        Arrays.fill(dirty, false);
+
+        var state = saveDevices();
+        var checkpoint = new Checkpoint(clock.getTick(), cpu.getExecuted(), ramPages, colorRamPages, state);
+        // The page tables are owned by each checkpoint, even if all pages are shared.
+        checkpoint.owned = copied + table(ramPages.length) + table(colorRamPages.length) + state.length;
+
+        checkpoints.addLast(checkpoint);
+        memory += checkpoint.owned;
+        while (memory > budget && checkpoints.size() > 1) {
+            dropOldest();
+        }
+    }
+
+    /**
+     * Save the state of the devices.
+     */
+    private byte[] saveDevices() {
+        try {
+            var bytes = new ByteArrayOutputStream(0x400);
+            var out = new DataOutputStream(bytes);
+            for (var device : devices) {
+                device.save(out);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to capture checkpoint.", e);
+        }
+    }
+
+    /**
+     * Drop the oldest checkpoint. Its pages still shared with the next checkpoint are passed to that one.
+     */
+    private void dropOldest() {
+        var oldest = checkpoints.removeFirst();
+        var next = checkpoints.getFirst();
+        long shared = shared(oldest.ramPages, next.ramPages) + shared(oldest.colorRamPages, next.colorRamPages);
+        next.owned += shared;
+        memory -= oldest.owned - shared;
+    }
+
+    /**
+     * Estimated number of bytes of a page table.
+     *
+     * @param pages
+     *         number of pages
+     */
+    private static long table(int pages) {
+        return ARRAY_HEADER + (long) REFERENCE * pages;
+    }
+
+    /**
+     * Number of bytes of the pages shared by both checkpoints.
+     */
+    private static long shared(byte[][] oldest, byte[][] next) {
+        long result = 0;
+        for (int page = 0; page < oldest.length; page++) {
+            if (oldest[page] == next[page]) {
+                result += PAGE;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Position to step back to.
+     *
+     * @param snapshot
+     *         snapshot to restore
+     * @param opcodes
+     *         number of opcodes to execute after restoring the snapshot
+     */
+    public record Position(Snapshot snapshot, long opcodes) {
+    }
+
+    /**
+     * Checkpoint.
+     */
+    private static final class Checkpoint {
+        /**
+         * Tick.
+         */
+        private final long tick;
+
+        /**
+         * Number of opcodes executed by the cpu.
+         */
+        private final long executed;
+
+        /**
+         * Pages of the RAM, shared with other checkpoints.
+         */
+        private final byte[][] ramPages;
+
+        /**
+         * Pages of the color RAM, shared with other checkpoints.
+         */
+        private final byte[][] colorRamPages;
+
+        /**
+         * State of the devices.
+         */
+        private final byte[] state;
+
+        /**
+         * Number of bytes accounted to this checkpoint.
+         */
+        private long owned;
+
+        /**
+         * Constructor.
+         */
+        private Checkpoint(long tick, long executed, byte[][] ramPages, byte[][] colorRamPages, byte[] state) {
+            this.tick = tick;
+            this.executed = executed;
+            this.ramPages = ramPages;
+            this.colorRamPages = colorRamPages;
+            this.state = state;
+        }
+
+        /**
+         * Snapshot of this checkpoint, sharing the pages of the memories followed by the devices.
+         */
+        private Snapshot snapshot() {
+            var memories = new MemorySegment[][]{ segments(ramPages), segments(colorRamPages) };
+            return new Snapshot(state, memories, new int[]{ 0, 0 }, tick);
+        }
+
+        /**
+         * Read-only views of the pages.
+         */
+        private static MemorySegment[] segments(byte[][] pages) {
+            var result = new MemorySegment[pages.length];
+            for (int page = 0; page < pages.length; page++) {
+                result[page] = MemorySegment.ofArray(pages[page]).asReadOnly();
+            }
+            return result;
+        }
+    }
+}
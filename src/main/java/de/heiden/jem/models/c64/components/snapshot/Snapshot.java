@@ -0,0 +1,287 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.models.c64.components.memory.AbstractMemory;
+import de.heiden.jem.models.c64.components.patch.CaptureSnapshot;
+import jakarta.annotation.Nonnull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * Immutable snapshot of the state of a C64, e.g. to start many C64s from the state after the boot
+ * or to resume an emulation later on.
+ * <p>
+ * A snapshot has to be captured by the cpu thread between two opcodes or by a patch, see {@link CaptureSnapshot}.
+ * At that point the events of the current tick have been executed, but no clocked component has been executed yet.
+ * A snapshot may be restored into any C64 with the same components, whose clock has not been started yet.
+ * The restored C64 continues with the current tick of the snapshot.
+ * <p>
+ * The components are saved in the given order and have to be restored in the same order.
+ * Components driving the irq and nmi inputs of the cpu have to be restored before the cpu.
+ * <p>
+ * Memories are not copied, but their pages are {@link AbstractMemory#share() shared} copy-on-write
+ * with the captured C64 and with all C64s the snapshot gets restored into.
+ * <p>
+ * Format of {@link #write(OutputStream) written} snapshots:
+ * Magic {@link #MAGIC}, {@link #VERSION version} and the deflated tick and state of the components.
+ */
+public final class Snapshot {
+    /**
+     * Magic number at the start of written snapshots: "JEMS".
+     */
+    public static final int MAGIC = 0x4A454D53;
+
+    /**
+     * Version of the format. Has to be incremented on any change of the state of any component.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Serialized state of the components, without the shared memories.
+     */
+    private final byte[] state;
+
+    /**
+     * Shared pages of the memories by index of the component, null for components in the serialized state.
+     */
+    private final MemorySegment[][] memories;
+
+    /**
+     * Position of each shared memory in the serialized state.
+     */
+    private final int[] positions;
+
+    /**
+     * Tick at which the snapshot has been captured.
+     */
+    private final long tick;
+
+    /**
+     * Constructor.
+     *
+     * @param state
+     *         serialized state of the components
+     * @param tick
+     *         tick at which the snapshot has been captured
+     */
+    Snapshot(byte[] state, long tick) {
+        this(state, new MemorySegment[0][], new int[0], tick);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param state
+     *         serialized state of the components, without the shared memories
+     * @param memories
+     *         shared pages of the memories by index of the component, null for components in the serialized state
+     * @param positions
+     *         position of each shared memory in the serialized state
+     * @param tick
+     *         tick at which the snapshot has been captured
+     */
+    Snapshot(byte[] state, MemorySegment[][] memories, int[] positions, long tick) {
+        this.state = state;
+        this.memories = memories;
+        this.positions = positions;
+        this.tick = tick;
+    }
+
+    /**
+     * Tick at which the snapshot has been captured.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Capture a snapshot of the given components.
+     * Has to be called by the cpu thread between two opcodes or by a patch.
+     *
+     * @param clock
+     *         clock
+     * @param components
+     *         components in the order to restore them
+     */
+    public static @Nonnull Snapshot capture(@Nonnull Clock clock, @Nonnull Stateful... components) {
+        try {
+            var bytes = new ByteArrayOutputStream(0x400);
+            var out = new DataOutputStream(bytes);
+            var memories = new MemorySegment[components.length][];
+            var positions = new int[components.length];
+            for (int i = 0; i < components.length; i++) {
+                if (components[i] instanceof AbstractMemory memory) {
+                    out.flush();
+                    memories[i] = memory.share();
+                    positions[i] = bytes.size();
+                } else {
+                    components[i].save(out);
+                }
+            }
+            out.flush();
+            return new Snapshot(bytes.toByteArray(), memories, positions, clock.getTick());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to capture snapshot.", e);
+        }
+    }
+
+    /**
+     * Restore this snapshot into the given components.
+     * Has to be called before the clock has been started.
+     * Other pending events of the clock, e.g. of the slow down, are postponed to the tick of the snapshot.
+     *
+     * @param clock
+     *         clock
+     * @param components
+     *         components in the same order as they have been captured
+     * @require !clock.isStarted()
+     */
+    public void restore(@Nonnull Clock clock, @Nonnull Stateful... components) {
+        assert !clock.isStarted() : "Precondition: !clock.isStarted()";
+
+        try {
+            // The clock continues with the tick of the snapshot.
+            clock.setTick(tick - 1);
+            var in = new DataInputStream(new ByteArrayInputStream(state));
+            for (int i = 0; i < components.length; i++) {
+                if (i < memories.length && memories[i] != null) {
+                    ((AbstractMemory) components[i]).restore(memories[i]);
+                } else {
+                    components[i].restore(in);
+                }
+            }
+            if (in.available() > 0) {
+                throw new IOException("Snapshot does not match the components.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore snapshot.", e);
+        }
+    }
+
+    //
+    // Persistence
+    //
+
+    /**
+     * Write this snapshot compressed to a stream.
+     *
+     * @param stream
+     *         stream to write to. Will not be closed.
+     */
+    public void write(@Nonnull OutputStream stream) throws IOException {
+        var out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            var deflating = new DeflaterOutputStream(stream, deflater);
+            var compressed = new DataOutputStream(deflating);
+            compressed.writeLong(tick);
+            compressed.writeInt(state.length + sharedLength());
+            // The shared memories are written in place, as if they were serialized.
+            int position = 0;
+            for (int i = 0; i < memories.length; i++) {
+                if (memories[i] != null) {
+                    compressed.write(state, position, positions[i] - position);
+                    position = positions[i];
+                    for (var page : memories[i]) {
+                        compressed.write(page.toArray(JAVA_BYTE));
+                    }
+                }
+            }
+            compressed.write(state, position, state.length - position);
+            compressed.flush();
+            deflating.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Number of bytes of the shared memories.
+     */
+    private int sharedLength() {
+        int result = 0;
+        for (var pages : memories) {
+            if (pages != null) {
+                for (var page : pages) {
+                    result += (int) page.byteSize();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read a snapshot {@link #write(OutputStream) written} to a stream.
+     *
+     * @param stream
+     *         stream to read from. Will not be closed.
+     * @throws IOException
+     *         if the stream does not contain a snapshot of the current version
+     */
+    public static @Nonnull Snapshot read(@Nonnull InputStream stream) throws IOException {
+        var in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("No snapshot.");
+        }
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION + ".");
+        }
+
+        var inflater = new Inflater();
+        try {
+            var compressed = new DataInputStream(new InflaterInputStream(stream, inflater));
+            long tick = compressed.readLong();
+            var state = new byte[compressed.readInt()];
+            compressed.readFully(state);
+            return new Snapshot(state, tick);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Save this snapshot to a file.
+     *
+     * @param file
+     *         file to write to
+     */
+    public void save(@Nonnull Path file) throws IOException {
+        try (var stream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Load a snapshot from a file.
+     *
+     * @param file
+     *         file {@link #save(Path) saved} before
+     */
+    public static @Nonnull Snapshot load(@Nonnull Path file) throws IOException {
+        try (var stream = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(stream);
+        }
+    }
+}
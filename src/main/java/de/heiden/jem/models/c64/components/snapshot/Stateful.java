@@ -0,0 +1,29 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Component, whose state can be saved to and restored from a {@link Snapshot}.
+ */
+public interface Stateful {
+    /**
+     * Save the state.
+     *
+     * @param out
+     *         output to write the state to
+     */
+    void save(@Nonnull DataOutput out) throws IOException;
+
+    /**
+     * Restore the state saved by {@link #save(DataOutput)}.
+     * Has to be called before the clock has been started.
+     *
+     * @param in
+     *         input to read the state from
+     */
+    void restore(@Nonnull DataInput in) throws IOException;
+}
@@ -1,14 +1,11 @@
 package de.heiden.jem.models.c64.components.vic;
 
-import de.heiden.jem.components.clock.ClockedComponent;
-import de.heiden.jem.components.clock.Tick;
-
 /**
- * Display unit of vic.
+ * Display unit of vic: Screen buffers.
+ * Not clocked itself, so that it may catch up lazily too.
  */
-public abstract class AbstractDisplayUnit implements ClockedComponent {
+public abstract class AbstractDisplayUnit {
     protected final VIC _vic;
-    protected Tick _tick;
 
     private final int _offset;
     private final int _lineLength;
@@ -58,12 +55,9 @@ public abstract class AbstractDisplayUnit implements ClockedComponent {
         _screenDisplaying = _screenToDisplay;
     }
 
-    @Override
-    public void setTick(Tick tick) {
-        _tick = tick;
-    }
-
-    @Override
+    /**
+     * Name of the display unit.
+     */
     public String getName() {
         return _vic.getClass().getSimpleName() + " display";
     }
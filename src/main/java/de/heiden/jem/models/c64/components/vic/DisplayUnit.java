@@ -1,5 +1,7 @@
 package de.heiden.jem.models.c64.components.vic;
 
+import de.heiden.jem.components.clock.ClockedComponent;
+import de.heiden.jem.components.clock.Tick;
 import org.serialthreads.Interruptible;
 
 /**
@@ -7,7 +9,12 @@ import org.serialthreads.Interruptible;
  * <p>
  * TODO refactor dependencies
  */
-public class DisplayUnit extends AbstractDisplayUnit {
+public class DisplayUnit extends AbstractDisplayUnit implements ClockedComponent {
+    /**
+     * Tick.
+     */
+    private Tick _tick;
+
     /**
      * Hidden constructor.
      *
@@ -21,6 +28,11 @@ public class DisplayUnit extends AbstractDisplayUnit {
                 vic._lastX - vic._firstVisibleX + vic._lastVisibleX, vic._firstVBlank - (vic._lastVBlank + 1));
     }
 
+    @Override
+    public void setTick(Tick tick) {
+        _tick = tick;
+    }
+
     @Override
     @Interruptible
     public final void run() {
@@ -0,0 +1,176 @@
+package de.heiden.jem.models.c64.components.vic;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
+
+/**
+ * Display unit of vic, which is not clocked, but catches up lazily to the current tick of the clock.
+ * Renders exactly like {@link DisplayUnitSimple}, just without a context switch at every tick.
+ * <p>
+ * The vic catches up before the cpu accesses its registers or the color ram.
+ * Additionally, a clock event catches up at the next raster irq and at the end of each frame.
+ * Changes of the screen ram are not synchronized, they may get visible earlier than on real hardware.
+ */
+final class LazyDisplayUnit extends AbstractDisplayUnit {
+    /**
+     * Renderer of raster lines.
+     */
+    private final LineRenderer _renderer;
+
+    /**
+     * Clock.
+     */
+    private final Clock _clock;
+
+    /**
+     * Event to catch up at the next raster irq or the end of the frame.
+     */
+    private final ClockEvent _syncEvent;
+
+    /**
+     * Has the sync event been registered?
+     */
+    private boolean _syncEventRegistered = false;
+
+    /**
+     * Current raster line, -1 if not yet started.
+     */
+    private int _raster = -1;
+
+    /**
+     * Current index in screen data.
+     */
+    private int _ptr = 0;
+
+    /**
+     * Tick of the next step, which renders the current raster line and starts the next one.
+     */
+    private long _nextTick = 0;
+
+    /**
+     * Hidden constructor.
+     *
+     * @param vic
+     *         vic this display unit belongs to
+     * @param clock
+     *         system clock
+     */
+    LazyDisplayUnit(VIC vic, Clock clock) {
+        super(vic,
+                0,
+                vic._lastX - vic._firstVisibleX + vic._lastVisibleX, vic._firstVBlank - vic._lastVBlank,
+                vic._lastX - vic._firstVisibleX + vic._lastVisibleX, vic._firstVBlank - vic._lastVBlank);
+
+        _renderer = new LineRenderer(vic);
+        _clock = clock;
+        _syncEvent = new ClockEvent("VIC sync") {
+            @Override
+            public void execute(long tick) {
+                _syncEventRegistered = false;
+                catchUp(tick);
+            }
+        };
+
+        // Catch up at the start of the first frame.
+        scheduleSync();
+    }
+
+    /**
+     * Catch up to the current tick of the clock.
+     */
+    void catchUp() {
+        catchUp(_clock.getTick());
+    }
+
+    /**
+     * Catch up to the given tick: Execute everything that the clocked display unit would have executed before it.
+     *
+     * @param tick
+     *         current tick
+     */
+    void catchUp(long tick) {
+        if (_nextTick >= tick && _syncEventRegistered) {
+            // Nothing to do -> Return early.
+            return;
+        }
+
+        while (_nextTick < tick) {
+            if (_raster < 0) {
+                // Start of first frame.
+                _vic.reset();
+                _raster = 0;
+            } else {
+                _ptr = _renderer.renderLine(_screenRender, _ptr, _raster);
+                if (++_raster == _vic._linesPerScreen) {
+                    rendered(_screenRender);
+                    _ptr = 0;
+                    _raster = 0;
+                }
+            }
+            _vic.setRasterLine(_raster);
+            _nextTick += _vic._lastX;
+        }
+
+        scheduleSync();
+    }
+
+    /**
+     * Set the raster position to the current tick of the clock, e.g. when continuing from a snapshot.
+     * Assumes that the vic registers are up to date with the tick after the current tick,
+     * so the raster lines starting before that tick are not executed again.
+     */
+    void restore() {
+        long tick = _clock.getTick() + 1;
+        // Number of raster lines started before the tick.
+        long lines = (tick + _vic._lastX - 1) / _vic._lastX;
+        if (lines == 0) {
+            _raster = -1;
+            _ptr = 0;
+        } else {
+            _raster = (int) ((lines - 1) % _vic._linesPerScreen);
+            _ptr = _renderer.skipLines(_screenRender, _raster);
+        }
+        _nextTick = lines * _vic._lastX;
+
+        scheduleSync();
+    }
+
+    /**
+     * (Re-)schedule the sync event for the next raster irq or the end of the current frame,
+     * whatever comes first.
+     */
+    void scheduleSync() {
+        // Tick at which the raster line 0 of the next frame starts.
+        long syncTick = tickOfLine(0);
+        if ((_vic._regInterruptMask & VIC.INTERRUPT_RASTER) != 0 && _vic._regRasterIRQ < _vic._linesPerScreen) {
+            syncTick = Math.min(syncTick, tickOfLine(_vic._regRasterIRQ));
+        }
+
+        // The clocked display unit executes after the cpu, so the cpu notices changes at the next tick.
+        syncTick++;
+        if (_syncEventRegistered) {
+            _clock.updateClockEvent(syncTick, _syncEvent);
+        } else {
+            _clock.addClockEvent(syncTick, _syncEvent);
+            _syncEventRegistered = true;
+        }
+    }
+
+    /**
+     * Tick at which the raster line with the given number starts next.
+     *
+     * @param line
+     *         raster line
+     */
+    private long tickOfLine(int line) {
+        if (_raster < 0) {
+            return _nextTick + (long) line * _vic._lastX;
+        }
+
+        int lines = line - _raster - 1;
+        if (lines < 0) {
+            lines += _vic._linesPerScreen;
+        }
+        return _nextTick + (long) lines * _vic._lastX;
+    }
+}
@@ -134,12 +134,7 @@ class MemAccessUnit implements ClockedComponent {
     @Interruptible
     protected final void refresh() {
         // TODO BA for badline
-        // TODO speed up? (5)
-        waitForTick();
-        waitForTick();
-        waitForTick();
-        waitForTick();
-        waitForTick();
+        waitForTicks(5);
     }
 
     /**
@@ -148,15 +143,14 @@ class MemAccessUnit implements ClockedComponent {
     @Interruptible
     protected final void idle() {
         // TODO BA for next sprites
-        // TODO speed up? (65 - cycles per line + 2)
-        waitForTick();
-        waitForTick();
+        int ticks = 2;
         if (_vic._cyclesPerLine > 63) {
-            waitForTick();
+            ticks++;
         }
         if (_vic._cyclesPerLine > 64) {
-            waitForTick();
+            ticks++;
         }
+        waitForTicks(ticks);
     }
 
     /**
@@ -167,4 +161,17 @@ class MemAccessUnit implements ClockedComponent {
         _tick.waitForTick();
         x += 8;
     }
+
+    /**
+     * Wait for clock ticks.
+     *
+     * @param ticks
+     *         number of ticks to wait for
+     * @require ticks > 0
+     */
+    @Interruptible
+    protected final void waitForTicks(int ticks) {
+        _tick.waitForTicks(ticks);
+        x += 8 * ticks;
+    }
 }
@@ -5,13 +5,19 @@ import de.heiden.jem.components.clock.Clock;
 import de.heiden.jem.components.ports.OutputPort;
 import de.heiden.jem.components.ports.OutputPortImpl;
 import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
+import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * VIC.
  */
-public abstract class VIC implements BusDevice {
+public abstract class VIC implements BusDevice, Stateful {
     /**
      * Logger.
      */
@@ -38,12 +44,18 @@ public abstract class VIC implements BusDevice {
     protected final int _lastX;
 
 
-    // mem access unit
+    // mem access unit, null in lazy mode
     private final MemAccessUnit _memAccessUnit;
 
     // display unit
     public final AbstractDisplayUnit _displayUnit;
 
+    // lazy display unit, null if not in lazy mode
+    private final LazyDisplayUnit _lazyDisplayUnit;
+
+    // color ram as seen by the cpu
+    private final BusDevice _cpuColorRam;
+
     // address mask
     private final int _mask;
 
@@ -131,6 +143,40 @@ public abstract class VIC implements BusDevice {
     public VIC(Clock clock, VICBus bus, ColorRAM colorRam,
             int cyclesPerLine, int linesPerScreen, int firstVBlank, int lastVBlank,
             int firstVisibleX, int lastVisibleX, int lastX) {
+        this(clock, bus, colorRam, false,
+                cyclesPerLine, linesPerScreen, firstVBlank, lastVBlank,
+                firstVisibleX, lastVisibleX, lastX);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         system clock (1 MHz).
+     * @param bus
+     *         vic memory bus.
+     * @param colorRam
+     *         color ram.
+     * @param lazy
+     *         Lazy mode: The vic is no clocked component, but catches up on cpu accesses and at raster irqs.
+     *         The cpu has to access the color ram via {@link #getCpuColorRam()}.
+     * @param cyclesPerLine
+     *         system clock cycles per line
+     * @param linesPerScreen
+     *         lines per screen
+     * @param firstVBlank
+     * @param lastVBlank
+     * @param firstVisibleX
+     * @param lastVisibleX
+     *         last x value
+     * @param lastX
+     * @require clock != null
+     * @require bus != null
+     * @require colorRam != null
+     */
+    public VIC(Clock clock, VICBus bus, ColorRAM colorRam, boolean lazy,
+            int cyclesPerLine, int linesPerScreen, int firstVBlank, int lastVBlank,
+            int firstVisibleX, int lastVisibleX, int lastX) {
         assert clock != null : "clock != null";
         assert bus != null : "bus != null";
         assert colorRam != null : "colorRam != null";
@@ -156,11 +202,21 @@ public abstract class VIC implements BusDevice {
             _sprites[i] = new Sprite(i);
         }
 
-        logger.debug("start vic mem access unit");
-        _memAccessUnit = clock.addClockedComponent(Clock.VIC_MEM, new MemAccessUnit(this));
-
-        logger.debug("start vic display unit");
-        _displayUnit = clock.addClockedComponent(Clock.VIC_DISPLAY, new DisplayUnitSimple(this));
+        if (lazy) {
+            logger.debug("start lazy vic display unit");
+            _memAccessUnit = null;
+            _lazyDisplayUnit = new LazyDisplayUnit(this, clock);
+            _displayUnit = _lazyDisplayUnit;
+            _cpuColorRam = new LazyColorRAM();
+        } else {
+            logger.debug("start vic mem access unit");
+            _memAccessUnit = clock.addClockedComponent(Clock.VIC_MEM, new MemAccessUnit(this));
+
+            logger.debug("start vic display unit");
+            _displayUnit = clock.addClockedComponent(Clock.VIC_DISPLAY, new DisplayUnitSimple(this));
+            _lazyDisplayUnit = null;
+            _cpuColorRam = colorRam;
+        }
 
         _irqPort = new OutputPortImpl();
         _irqPort.setOutputMask(0x01);
@@ -184,6 +240,17 @@ public abstract class VIC implements BusDevice {
         return _mask;
     }
 
+    /**
+     * System clock cycles per frame. Frames start at the multiples of it.
+     * <p>
+     * The display units advance one pixel per tick instead of eight,
+     * so they render a frame just every {@link #_lastX} / {@link #_cyclesPerLine} frames,
+     * e.g. at every 8th frame start for PAL.
+     */
+    public int getCyclesPerFrame() {
+        return _cyclesPerLine * _linesPerScreen;
+    }
+
     /**
      * IRQ output signal.
      */
@@ -191,6 +258,14 @@ public abstract class VIC implements BusDevice {
         return _irqPort;
     }
 
+    /**
+     * Color ram as seen by the cpu.
+     * In lazy mode, the vic catches up before the cpu writes to the color ram.
+     */
+    public BusDevice getCpuColorRam() {
+        return _cpuColorRam;
+    }
+
     /**
      * Write byte to bus device.
      *
@@ -204,6 +279,10 @@ public abstract class VIC implements BusDevice {
     public void write(int value, int address) {
         assert value >= 0 && value < 0x100 : "value >= 0 && value < 0x100";
 
+        if (_lazyDisplayUnit != null) {
+            _lazyDisplayUnit.catchUp();
+        }
+
         switch (address & _mask) {
             case 0x00: {
                 _sprites[0].setXLSB(value);
@@ -457,6 +536,11 @@ public abstract class VIC implements BusDevice {
                 break;
             }
         }
+
+        if (_lazyDisplayUnit != null) {
+            // raster irq line or mask may have changed
+            _lazyDisplayUnit.scheduleSync();
+        }
     }
 
     /**
@@ -468,6 +552,10 @@ public abstract class VIC implements BusDevice {
      */
     @Override
     public int read(int address) {
+        if (_lazyDisplayUnit != null) {
+            _lazyDisplayUnit.catchUp();
+        }
+
         int result;
         switch (address & _mask) {
             case 0x00: {
@@ -707,4 +795,131 @@ public abstract class VIC implements BusDevice {
         _baseBitmapMode = (_regBase & 0x04) << 10;
         _baseCharacterSet = (_regBase & 0x0E) << 10; // TODO what about bit 1?
     }
+
+    //
+    // Snapshot
+    //
+
+    /**
+     * Save the state of the registers.
+     * The raster position is not saved, because it is determined by the tick of the clock.
+     *
+     * @param out
+     *         output to write the state to
+     */
+    @Override
+    public void save(@Nonnull DataOutput out) throws IOException {
+        if (_lazyDisplayUnit != null) {
+            // Execute pending raster irqs.
+            _lazyDisplayUnit.catchUp();
+        }
+
+        for (Sprite sprite : _sprites) {
+            out.writeShort(sprite.x);
+            out.writeByte(sprite.y);
+            out.writeByte(sprite.color);
+        }
+        out.writeByte(_regSpritesEnable);
+        out.writeByte(_regSpritesMSBX);
+        out.writeByte(_regSpritesExpandX);
+        out.writeByte(_regSpritesExpandY);
+        out.writeByte(_regSpritesMulticolorMode);
+        out.writeByte(_regSpritesMulticolor0);
+        out.writeByte(_regSpritesMulticolor1);
+        out.writeByte(_regSpritesSpriteCollision);
+        out.writeByte(_regSpritesBackgroundCollision);
+        out.writeByte(_regSpritesBackgroundPriority);
+
+        out.writeByte(_regControl1);
+        out.writeShort(_regRaster);
+        out.writeShort(_regRasterIRQ);
+        out.writeByte(_regControl2);
+        out.writeByte(_regBase);
+        out.writeByte(_regStrobeX);
+        out.writeByte(_regStrobeY);
+        out.writeByte(_regInterruptRequest);
+        out.writeByte(_regInterruptMask);
+        out.writeByte(_regExteriorColor);
+        out.writeByte(_regBackgroundColor0);
+        out.writeByte(_regBackgroundColor1);
+        out.writeByte(_regBackgroundColor2);
+        out.writeByte(_regBackgroundColor3);
+        out.writeByte(_regKeyboard);
+        out.writeByte(_regFastMode);
+        out.writeByte(_irqPort.outputData());
+    }
+
+    /**
+     * Restore the state of the registers.
+     * The clock has to be set to the tick of the state before, because it determines the raster position.
+     *
+     * @param in
+     *         input to read the state from, see {@link #save(DataOutput)}
+     */
+    @Override
+    public void restore(@Nonnull DataInput in) throws IOException {
+        for (Sprite sprite : _sprites) {
+            sprite.x = in.readUnsignedShort();
+            sprite.y = in.readUnsignedByte();
+            sprite.color = in.readByte();
+        }
+        _regSpritesEnable = in.readUnsignedByte();
+        _regSpritesMSBX = in.readUnsignedByte();
+        _regSpritesExpandX = in.readUnsignedByte();
+        _regSpritesExpandY = in.readUnsignedByte();
+        _regSpritesMulticolorMode = in.readUnsignedByte();
+        _regSpritesMulticolor0 = in.readByte();
+        _regSpritesMulticolor1 = in.readByte();
+        _regSpritesSpriteCollision = in.readUnsignedByte();
+        _regSpritesBackgroundCollision = in.readUnsignedByte();
+        _regSpritesBackgroundPriority = in.readUnsignedByte();
+        for (Sprite sprite : _sprites) {
+            sprite.enable(_regSpritesEnable);
+            sprite.setExpandX(_regSpritesExpandX);
+            sprite.setExpandY(_regSpritesExpandY);
+            sprite.setMulticolor(_regSpritesMulticolorMode);
+            sprite.multicolor1 = _regSpritesMulticolor0;
+            sprite.multicolor2 = _regSpritesMulticolor1;
+        }
+
+        _regControl1 = in.readUnsignedByte();
+        _regRaster = in.readUnsignedShort();
+        _regRasterIRQ = in.readUnsignedShort();
+        _regControl2 = in.readUnsignedByte();
+        _regBase = in.readUnsignedByte();
+        updateBaseAddresses();
+        _regStrobeX = in.readUnsignedByte();
+        _regStrobeY = in.readUnsignedByte();
+        _regInterruptRequest = in.readUnsignedByte();
+        _regInterruptMask = in.readUnsignedByte();
+        _regExteriorColor = in.readByte();
+        _regBackgroundColor0 = in.readByte();
+        _regBackgroundColor1 = in.readByte();
+        _regBackgroundColor2 = in.readByte();
+        _regBackgroundColor3 = in.readByte();
+        _regKeyboard = in.readUnsignedByte();
+        _regFastMode = in.readUnsignedByte();
+        _irqPort.setOutputData(in.readUnsignedByte());
+
+        if (_lazyDisplayUnit != null) {
+            _lazyDisplayUnit.restore();
+        }
+    }
+
+    /**
+     * Color ram for the cpu in lazy mode.
+     * The vic catches up before each write, so that the vic renders with the old colors until now.
+     */
+    private final class LazyColorRAM implements BusDevice {
+        @Override
+        public void write(int value, int address) {
+            _lazyDisplayUnit.catchUp();
+            _colorRam.write(value, address);
+        }
+
+        @Override
+        public int read(int address) {
+            return _colorRam.read(address);
+        }
+    }
 }
@@ -21,7 +21,26 @@ public class VIC6567R8NTSC extends VIC {
      * @require colorRam != null
      */
     public VIC6567R8NTSC(Clock clock, VICBus bus, ColorRAM colorRam) {
-        super(clock, bus, colorRam,
+        this(clock, bus, colorRam, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         system clock (1 MHz).
+     * @param bus
+     *         vic memory bus.
+     * @param colorRam
+     *         color ram.
+     * @param lazy
+     *         lazy mode, see {@link VIC#VIC(Clock, VICBus, ColorRAM, boolean, int, int, int, int, int, int, int)}.
+     * @require clock != null
+     * @require bus != null
+     * @require colorRam != null
+     */
+    public VIC6567R8NTSC(Clock clock, VICBus bus, ColorRAM colorRam, boolean lazy) {
+        super(clock, bus, colorRam, lazy,
                 65, 263, 13, 40, 489, 396, 512);
 
         // _cyclesPerLine = 65;
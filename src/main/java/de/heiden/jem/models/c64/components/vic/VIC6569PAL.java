@@ -21,7 +21,26 @@ public class VIC6569PAL extends VIC {
      * @require colorRam != null
      */
     public VIC6569PAL(Clock clock, VICBus bus, ColorRAM colorRam) {
-        super(clock, bus, colorRam,
+        this(clock, bus, colorRam, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clock
+     *         system clock (1 MHz).
+     * @param bus
+     *         vic memory bus.
+     * @param colorRam
+     *         color ram.
+     * @param lazy
+     *         lazy mode, see {@link VIC#VIC(Clock, VICBus, ColorRAM, boolean, int, int, int, int, int, int, int)}.
+     * @require clock != null
+     * @require bus != null
+     * @require colorRam != null
+     */
+    public VIC6569PAL(Clock clock, VICBus bus, ColorRAM colorRam, boolean lazy) {
+        super(clock, bus, colorRam, lazy,
                 63, 312, 300, 15, 480, 380, 504);
 
         // 6569
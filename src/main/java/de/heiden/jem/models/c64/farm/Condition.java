@@ -0,0 +1,80 @@
+package de.heiden.jem.models.c64.farm;
+
+import jakarta.annotation.Nonnull;
+
+import static de.heiden.c64dt.bytes.HexUtil.hexByte;
+import static de.heiden.c64dt.bytes.HexUtil.hexWord;
+import static java.util.Arrays.stream;
+
+/**
+ * Condition to finish a {@link Job}. Evaluated by the C64 of the job after each quantum.
+ */
+@FunctionalInterface
+public interface Condition {
+    /**
+     * Program end: The basic interpreter is back at "READY.".
+     * Ends each job, if none of its conditions is met before.
+     */
+    Condition PROGRAM_END = new Condition() {
+        @Override
+        public boolean test(@Nonnull Machine machine) {
+            return machine.hasEnded();
+        }
+
+        @Override
+        public String toString() {
+            return "Program end";
+        }
+    };
+
+    /**
+     * Is the condition met?.
+     *
+     * @param machine
+     *         Machine executing the job.
+     */
+    boolean test(@Nonnull Machine machine);
+
+    /**
+     * Condition "value in memory", e.g. the border color.
+     *
+     * @param addr
+     *         Address to monitor.
+     * @param value
+     *         Value to wait for.
+     */
+    static Condition inMemory(int addr, int value) {
+        return new Condition() {
+            @Override
+            public boolean test(@Nonnull Machine machine) {
+                return machine.read(addr) == value;
+            }
+
+            @Override
+            public String toString() {
+                return "Memory " + hexWord(addr) + " == " + hexByte(value);
+            }
+        };
+    }
+
+    /**
+     * Condition "text on console".
+     *
+     * @param texts
+     *         Texts, one of them has to be printed.
+     */
+    static Condition onConsole(@Nonnull String... texts) {
+        return new Condition() {
+            @Override
+            public boolean test(@Nonnull Machine machine) {
+                var console = machine.getConsole();
+                return stream(texts).anyMatch(console::contains);
+            }
+
+            @Override
+            public String toString() {
+                return "Console contains " + String.join(" or ", texts);
+            }
+        };
+    }
+}
@@ -0,0 +1,180 @@
+package de.heiden.jem.models.c64.farm;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.cpu.CPU6510;
+import de.heiden.jem.models.c64.components.snapshot.Snapshot;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless farm running many C64s, e.g. to execute test programs.
+ * <p>
+ * Each {@link Job} runs on its own C64, forked from a C64 booted once by the farm.
+ * The jobs are executed by a pool with one worker per core, the C64 of a job runs on the worker itself,
+ * see {@link Machine}: There are no further threads and no context switches between the worker and the C64.
+ * The jobs are time-sliced: A worker executes one quantum of a job and then requeues the job at the end of the queue,
+ * if it has not finished yet. So long-running jobs do not starve short ones.
+ * The C64 of a job is created, when its first quantum gets executed.
+ */
+public final class EmulatorFarm implements AutoCloseable {
+    /**
+     * Default number of ticks executed per quantum.
+     */
+    public static final int DEFAULT_QUANTUM = 100000;
+
+    /**
+     * Address of the main loop of the basic interpreter, reached after printing "READY.".
+     */
+    private static final int READY = 0xE38B;
+
+    /**
+     * Logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Pool executing the quanta of the jobs first in, first out.
+     */
+    private final ExecutorService pool;
+
+    /**
+     * Number of ticks between two evaluations of the conditions of a job.
+     */
+    private final int quantum;
+
+    /**
+     * Booted C64.
+     */
+    private final C64 boot;
+
+    /**
+     * Snapshot of the booted C64 at "READY.".
+     */
+    private final Snapshot bootSnapshot;
+
+    /**
+     * Results of the jobs not finished yet.
+     */
+    private final Set<CompletableFuture<Result>> results = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor using one worker per core and the {@link #DEFAULT_QUANTUM default quantum}.
+     */
+    public EmulatorFarm() throws Exception {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUANTUM);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism
+     *         Number of workers, usually the number of cores.
+     * @param quantum
+     *         Number of ticks between two evaluations of the conditions of a job.
+     * @require parallelism > 0
+     * @require quantum > 0
+     */
+    public EmulatorFarm(int parallelism, int quantum) throws Exception {
+        assert parallelism > 0 : "Precondition: parallelism > 0";
+        assert quantum > 0 : "Precondition: quantum > 0";
+
+        this.quantum = quantum;
+        this.pool = Executors.newFixedThreadPool(parallelism);
+
+        // Boot once, each job starts from a fork of the booted C64.
+        var clock = new CycleBudgetClock();
+        boot = new C64(clock, new CPU6510(), true, false);
+        var capture = boot.captureAt(READY);
+        for (int i = 0; i < 100 && capture.getSnapshot() == null; i++) {
+            clock.run(100000);
+        }
+        clock.close();
+
+        bootSnapshot = capture.getSnapshot();
+        if (bootSnapshot == null) {
+            throw new IllegalStateException("Boot did not finish.");
+        }
+    }
+
+    /**
+     * Submit a job.
+     *
+     * @param job
+     *         Job.
+     * @return Result of the job, when it has finished.
+     * Cancel it to abort the job, which stops its C64 after the current quantum.
+     */
+    public CompletableFuture<Result> submit(@Nonnull Job job) {
+        var result = new CompletableFuture<Result>();
+        results.add(result);
+        result.whenComplete((r, e) -> results.remove(result));
+        enqueue(job, null, result);
+        return result;
+    }
+
+    /**
+     * Enqueue the next quantum of the job.
+     *
+     * @param machine
+     *         C64 of the job, null if the job has not been started yet.
+     */
+    private void enqueue(Job job, Machine machine, CompletableFuture<Result> result) {
+        try {
+            pool.execute(() -> execute(job, machine, result));
+        } catch (RejectedExecutionException e) {
+            // The farm has been closed.
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Execute the next quantum of the job by the current worker.
+     * Requeue the job, if it has not finished yet.
+     *
+     * @param machine
+     *         C64 of the job, null if the job has not been started yet.
+     */
+    private void execute(Job job, Machine machine, CompletableFuture<Result> result) {
+        if (result.isDone()) {
+            // Cancelled.
+            if (machine != null) {
+                machine.close();
+            }
+            return;
+        }
+
+        try {
+            var started = machine != null ? machine : new Machine(job, boot, bootSnapshot);
+            var r = started.run(quantum);
+            if (r == null) {
+                enqueue(job, started, result);
+                return;
+            }
+            logger.debug("Job {} finished after {} ticks: {}.", job, r.ticks(), r.condition());
+            result.complete(r);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Abort all jobs not finished yet and stop the workers.
+     * The running C64s stop after their current quantum.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        pool.shutdown();
+        results.forEach(result -> result.cancel(false));
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,104 @@
+package de.heiden.jem.models.c64.farm;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Job for the {@link EmulatorFarm}: Run a program until one of the conditions is met.
+ */
+public final class Job {
+    /**
+     * Name.
+     */
+    private final String name;
+
+    /**
+     * Program, starting with its load address.
+     */
+    private final byte[] program;
+
+    /**
+     * Max ticks to run.
+     */
+    private final long maxTicks;
+
+    /**
+     * Conditions to finish the job, the first ones take precedence.
+     */
+    private final List<Condition> conditions;
+
+    /**
+     * Constructor.
+     *
+     * @param name
+     *         Name, e.g. of the program.
+     * @param program
+     *         Program, starting with its load address.
+     * @param maxTicks
+     *         Max ticks to run. Assumes 1 MHz clock.
+     * @param conditions
+     *         Conditions to finish the job, the first ones take precedence.
+     * @require program.length >= 2
+     * @require maxTicks > 0
+     */
+    public Job(@Nonnull String name, @Nonnull byte[] program, long maxTicks, @Nonnull Condition... conditions) {
+        assert program.length >= 2 : "Precondition: program.length >= 2";
+        assert maxTicks > 0 : "Precondition: maxTicks > 0";
+
+        this.name = name;
+        this.program = program.clone();
+        this.maxTicks = maxTicks;
+        this.conditions = List.of(conditions);
+    }
+
+    /**
+     * Job for a program file.
+     *
+     * @param program
+     *         Path to the program file.
+     * @param maxTicks
+     *         Max ticks to run. Assumes 1 MHz clock.
+     * @param conditions
+     *         Conditions to finish the job, the first ones take precedence.
+     */
+    public static Job of(@Nonnull Path program, long maxTicks, @Nonnull Condition... conditions) throws IOException {
+        return new Job(program.getFileName().toString(), Files.readAllBytes(program), maxTicks, conditions);
+    }
+
+    /**
+     * Name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Program, starting with its load address.
+     */
+    byte[] getProgram() {
+        return program;
+    }
+
+    /**
+     * Max ticks to run.
+     */
+    public long getMaxTicks() {
+        return maxTicks;
+    }
+
+    /**
+     * Conditions to finish the job, the first ones take precedence.
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,238 @@
+package de.heiden.jem.models.c64.farm;
+
+import de.heiden.c64dt.charset.PetSCIICharset;
+import de.heiden.jem.components.bus.WordBus;
+import de.heiden.jem.components.clock.budget.InlineCycleBudgetClock;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.patch.FileUtil;
+import de.heiden.jem.models.c64.components.patch.ProgramEndDetector;
+import de.heiden.jem.models.c64.components.patch.SystemOut;
+import de.heiden.jem.models.c64.components.snapshot.Snapshot;
+import jakarta.annotation.Nonnull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * C64 executing a {@link Job} in the {@link EmulatorFarm}.
+ * <p>
+ * The C64 is forked from a booted C64, so it starts at "READY." with the program already loaded and "RUN" typed.
+ * It is {@link #run(int) executed} quantum by quantum by the calling thread via an {@link InlineCycleBudgetClock},
+ * so each quantum may be executed by another worker of the pool.
+ * The conditions are evaluated after each quantum.
+ */
+public final class Machine {
+    /**
+     * Charset.
+     */
+    private static final PetSCIICharset charset = new PetSCIICharset(false);
+
+    /**
+     * Keyboard buffer.
+     */
+    private static final int KEYBOARD_BUFFER = 0x0277;
+
+    /**
+     * Number of chars in the keyboard buffer.
+     */
+    private static final int KEYBOARD_BUFFER_LENGTH = 0xC6;
+
+    /**
+     * "RUN" + return in PETSCII.
+     */
+    private static final byte[] RUN = { 0x52, 0x55, 0x4E, 0x0D };
+
+    /**
+     * Job.
+     */
+    private final Job job;
+
+    /**
+     * Clock.
+     */
+    private final InlineCycleBudgetClock clock;
+
+    /**
+     * C64.
+     */
+    private final C64 c64;
+
+    /**
+     * Tick of the start of the job.
+     */
+    private final long start;
+
+    /**
+     * Console output.
+     */
+    private final StringBuilder console = new StringBuilder(1024);
+
+    /**
+     * Detects when the (basic) program ends.
+     */
+    private final ProgramEndDetector programEnd = new ProgramEndDetector();
+
+    /**
+     * Has the program ended?.
+     */
+    private boolean ended = false;
+
+    /**
+     * Condition which has been met, if any.
+     */
+    private Condition condition;
+
+    /**
+     * Exception which terminated the emulation, if any.
+     */
+    private Exception failure;
+
+    /**
+     * Constructor.
+     *
+     * @param job
+     *         Job.
+     * @param boot
+     *         Booted C64 to fork.
+     * @param snapshot
+     *         Snapshot of the booted C64 at "READY.".
+     */
+    Machine(@Nonnull Job job, @Nonnull C64 boot, @Nonnull Snapshot snapshot) throws Exception {
+        this.job = job;
+        this.clock = new InlineCycleBudgetClock();
+        this.c64 = boot.fork(clock, snapshot);
+        this.start = snapshot.getTick();
+
+        var systemOut = new SystemOut();
+        systemOut.setStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                char c = charset.toChar((byte) b);
+                if (c > 0) {
+                    console.append(c);
+                }
+            }
+        });
+        c64.getCpu().add(systemOut);
+        c64.getCpu().add(programEnd);
+
+        load(job.getProgram());
+    }
+
+    /**
+     * Write the program to memory like LOAD and type "RUN".
+     *
+     * @param program
+     *         Program, starting with its load address.
+     */
+    private void load(byte[] program) throws IOException {
+        var bus = c64.getCpuBus();
+        int end = FileUtil.read(new ByteArrayInputStream(program), bus);
+
+        // Start of variables, start of arrays and end of arrays.
+        var wordBus = new WordBus(bus);
+        wordBus.writeWord(0x2D, end);
+        wordBus.writeWord(0x2F, end);
+        wordBus.writeWord(0x31, end);
+
+        for (int i = 0; i < RUN.length; i++) {
+            bus.write(RUN[i], KEYBOARD_BUFFER + i);
+        }
+        bus.write(RUN.length, KEYBOARD_BUFFER_LENGTH);
+    }
+
+    /**
+     * Execute the next quantum of the job by the calling thread and evaluate the conditions afterward.
+     *
+     * @param quantum
+     *         Ticks between two evaluations of the conditions.
+     * @return Result of the job, if it has finished, otherwise null.
+     * @require quantum > 0
+     */
+    Result run(int quantum) {
+        assert quantum > 0 : "Precondition: quantum > 0";
+
+        try {
+            // Not after the max ticks.
+            clock.run((int) Math.min(quantum, job.getMaxTicks() - getTicks()));
+            ended |= programEnd.hasEnded();
+            condition = check();
+        } catch (Exception e) {
+            failure = e;
+        }
+
+        if (failure == null && !isFinished()) {
+            return null;
+        }
+        clock.close();
+        return new Result(job, condition, getTicks(), getConsole(), failure);
+    }
+
+    /**
+     * Stop the C64 without finishing the job, e.g. because it has been cancelled.
+     */
+    void close() {
+        clock.close();
+    }
+
+    /**
+     * Condition which has been met, if any.
+     * The conditions of the job take precedence over the {@link Condition#PROGRAM_END program end}.
+     */
+    private Condition check() {
+        for (var condition : job.getConditions()) {
+            if (condition.test(this)) {
+                return condition;
+            }
+        }
+
+        return Condition.PROGRAM_END.test(this) ? Condition.PROGRAM_END : null;
+    }
+
+    /**
+     * Has the job finished?
+     * The job finishes, when a condition is met or the max ticks have been executed.
+     */
+    private boolean isFinished() {
+        return condition != null || getTicks() >= job.getMaxTicks();
+    }
+
+    /**
+     * Job.
+     */
+    public Job getJob() {
+        return job;
+    }
+
+    /**
+     * Ticks executed for the job.
+     */
+    public long getTicks() {
+        return clock.getTick() - start;
+    }
+
+    /**
+     * Read from the memory as seen by the cpu.
+     *
+     * @param addr
+     *         Address.
+     */
+    public int read(int addr) {
+        return c64.getCpuBus().read(addr);
+    }
+
+    /**
+     * Console output.
+     */
+    public String getConsole() {
+        return console.toString();
+    }
+
+    /**
+     * Has the (basic) program ended?.
+     */
+    public boolean hasEnded() {
+        return ended;
+    }
+}
@@ -0,0 +1,24 @@
+package de.heiden.jem.models.c64.farm;
+
+/**
+ * Result of a {@link Job}.
+ *
+ * @param job
+ *         Job.
+ * @param condition
+ *         Condition which has been met, {@link Condition#PROGRAM_END} or null, if none has been met in time.
+ * @param ticks
+ *         Ticks executed.
+ * @param console
+ *         Console output.
+ * @param failure
+ *         Exception which terminated the emulation, if any.
+ */
+public record Result(Job job, Condition condition, long ticks, String console, Exception failure) {
+    /**
+     * Has the given condition been met?.
+     */
+    public boolean isMet(Condition condition) {
+        return this.condition == condition;
+    }
+}
@@ -36,7 +36,8 @@ public class C64Application extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        c64 = new C64(createClock());
+        var lazyVic = Boolean.parseBoolean(getParameters().getNamed().get("lazyVic"));
+        c64 = new C64(createClock(), false, lazyVic);
 
         var screen = new VICScreen(c64.getVIC()._displayUnit);
 
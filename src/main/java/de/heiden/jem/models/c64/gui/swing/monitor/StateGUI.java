@@ -52,13 +52,13 @@ public class StateGUI extends JPanel {
             text.setText(0, 4, "Y =" + HexUtil.hexByte(state.Y));
             text.setText(0, 5, "P =");
             int c = 3;
-            text.setText(c++, 5, state.N ? "N" : "n");
+            text.setText(c++, 5, state.isN() ? "N" : "n");
             text.setText(c++, 5, state.V ? "V" : "v");
             text.setText(c++, 5, "1");
             text.setText(c++, 5, state.B ? "B" : "b");
             text.setText(c++, 5, state.D ? "D" : "d");
             text.setText(c++, 5, state.I ? "I" : "i");
-            text.setText(c++, 5, state.Z ? "Z" : "z");
+            text.setText(c++, 5, state.isZ() ? "Z" : "z");
             text.setText(c++, 5, state.C ? "C" : "c");
             text.setText(0, 6, (state.NMI ? "NMI" : "") + (state.IRQ ? " IRQ" : ""));
         }
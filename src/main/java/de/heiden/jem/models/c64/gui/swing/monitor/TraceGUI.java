@@ -51,13 +51,12 @@ public class TraceGUI extends JPanel {
         if (cpu != null) {
             try {
                 var currentTrace = cpu.getCurrentTrace();
-                var traces = cpu.getTraces();
                 for (int i = 9; i >= 0; i--) {
                     currentTrace--;
                     if (currentTrace < 0) {
-                        currentTrace = traces.length - 1;
+                        currentTrace = cpu.getTraceCapacity() - 1;
                     }
-                    var trace = traces[currentTrace];
+                    var trace = cpu.getTrace(currentTrace);
 
                     var output = new StringWriter(20);
                     disassembler.disassemble(trace.toCodeBuffer(), output);
@@ -185,6 +185,46 @@ class AbstractClockTest {
             assertEquals(2, executed.size());
             assertTrue(executed.contains(event2a));
             assertTrue(executed.contains(event2b));
+            assertSame(event3, clock.getNextEvent());
+            assertEquals(3, clock.getNextEventTick());
+        }
+    }
+
+    @Test
+    void execute_overdue() {
+        try (var clock = new TestClock()) {
+            var event2 = new TestClockEvent();
+            clock.addClockEvent(2, event2);
+            var event4 = new TestClockEvent();
+            clock.addClockEvent(4, event4);
+
+            // Tick 2 has been missed, e.g. because the event has been added too late -> execute it at tick 3.
+            clock.executeEvents(3);
+            assertEquals(1, executed.size());
+            assertSame(event2, executed.getFirst());
+            assertSame(event4, clock.getNextEvent());
+            assertEquals(4, clock.getNextEventTick());
+        }
+    }
+
+    @Test
+    void setTick() {
+        try (var clock = new TestClock()) {
+            var event1a = new TestClockEvent();
+            clock.addClockEvent(1, event1a);
+            var event1b = new TestClockEvent();
+            clock.addClockEvent(1, event1b);
+            var event3 = new TestClockEvent();
+            clock.addClockEvent(3, event3);
+
+            // Continue at tick 100 -> Events should be postponed by 100 ticks, keeping their order.
+            clock.setTick(99);
+            assertEquals(99, clock.getTick());
+            assertSame(event1b, clock.getNextEvent());
+            assertSame(event1a, event1b.next);
+            assertSame(event3, event1a.next);
+            assertEquals(101, clock.getNextEventTick());
+            assertEquals(103, event3.getTick());
         }
     }
 
@@ -192,6 +232,14 @@ class AbstractClockTest {
      * Clock implementation for testing.
      */
     private static final class TestClock extends AbstractSimpleClock {
+        /**
+         * Constructor.
+         * Uses the list based event queue, because the tests check the list structure.
+         */
+        TestClock() {
+            super(new LinkedClockEventQueue());
+        }
+
         @Override
         protected void doRun() {
             throw new UnsupportedOperationException("Not implemented for test clock");
@@ -201,13 +249,6 @@ class AbstractClockTest {
         protected void doRun(int ticks) {
             throw new UnsupportedOperationException("Not implemented for test clock");
         }
-
-        /**
-         * Tick, when the next event gets executed.
-         */
-        long getNextEventTick() {
-            return getNextEvent().tick;
-        }
     }
 
     /**
@@ -29,10 +29,25 @@ public abstract class ClockTestBase {
     }
 
     private void run(int runs, int cycles) throws Exception {
+        run(runs, cycles, 1);
+    }
+
+    /**
+     * Test for {@link Tick#waitForTicks(int)}.
+     */
+    @Test
+    void waitForTicks() {
+        int runs = 10;
+        int cycles = 1000;
+        // @Timeout(10) does not work if synchronization ignores interrupts.
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> run(runs, cycles, 3));
+    }
+
+    private void run(int runs, int cycles, int ticks) throws Exception {
         for (int i = 0; i < runs; i++) {
             System.out.println("Run " + i);
             try (var clock = createClock()) {
-                run(clock, cycles);
+                run(clock, cycles, ticks);
             }
             System.out.println();
             System.out.flush();
@@ -49,12 +64,13 @@ public abstract class ClockTestBase {
 
     /**
      * Test run clock.
+     * Every second counter waits for the given number of ticks between counts, all others for one tick.
      */
-    private void run(Clock clock, int cycles) {
+    private void run(Clock clock, int cycles, int ticks) {
         int num = numCounters();
         var counters = new CounterComponent[num];
         for (int i = 0; i < num; i++) {
-            var counter = new CounterComponent();
+            var counter = new CounterComponent(i % 2 == 0 ? 1 : ticks);
             clock.addClockedComponent(i, counter);
             counters[i] = counter;
         }
@@ -63,15 +79,16 @@ public abstract class ClockTestBase {
 
         // Check that all components are executed exactly the specified amount of cycles.
         boolean failure = false;
-        for (var counter : counters) {
-            failure |= counter.getCount() != cycles;
+        for (int i = 0; i < num; i++) {
+            int counterTicks = i % 2 == 0 ? 1 : ticks;
+            failure |= counters[i].getCount() != (cycles + counterTicks - 1) / counterTicks;
         }
 
         if (failure) {
             for (int i = 0; i < counters.length; i++) {
                 System.out.printf("Counter %d: %d%n", i, counters[i].getCount());
             }
-            fail("Not all counters are at " + cycles);
+            fail("Not all counters are at the expected count");
         }
     }
 }
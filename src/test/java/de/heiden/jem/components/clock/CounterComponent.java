@@ -8,6 +8,11 @@ import static java.lang.Thread.interrupted;
  * Counter for clock tests.
  */
 public final class CounterComponent implements ClockedComponent {
+    /**
+     * Number of ticks to wait for between counts.
+     */
+    private final int ticks;
+
     /**
      * Tick.
      */
@@ -18,6 +23,23 @@ public final class CounterComponent implements ClockedComponent {
      */
     private volatile long count;
 
+    /**
+     * Constructor for counting every tick.
+     */
+    public CounterComponent() {
+        this(1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ticks
+     *         number of ticks to wait for between counts
+     */
+    public CounterComponent(int ticks) {
+        this.ticks = ticks;
+    }
+
     @Override
     public String getName() {
         return "Test counter";
@@ -36,7 +58,11 @@ public final class CounterComponent implements ClockedComponent {
             if (count % 10 == 0) {
                 System.out.print(".");
             }
-            tick.waitForTick();
+            if (ticks == 1) {
+                tick.waitForTick();
+            } else {
+                tick.waitForTicks(ticks);
+            }
         }
     }
 
@@ -0,0 +1,39 @@
+package de.heiden.jem.components.clock;
+
+import org.junit.jupiter.api.Test;
+
+import static de.heiden.jem.components.clock.PacingHistogram.BUCKETS;
+import static de.heiden.jem.components.clock.PacingHistogram.bucket;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link PacingHistogram}.
+ */
+class PacingHistogramTest {
+    @Test
+    void buckets() {
+        assertEquals(0, bucket(0));
+        assertEquals(0, bucket(999));
+        assertEquals(1, bucket(1_000));
+        assertEquals(1, bucket(1_999));
+        assertEquals(2, bucket(2_000));
+        assertEquals(11, bucket(1_024_000));
+        assertEquals(BUCKETS - 1, bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void record() {
+        var histogram = new PacingHistogram();
+        histogram.record(500);
+        histogram.record(1_500);
+        histogram.record(1_600);
+
+        assertEquals(1, histogram.getCount(0));
+        assertEquals(2, histogram.getCount(1));
+        assertEquals(3, histogram.getCount());
+        assertEquals("<1µs: 1, <2µs: 2", histogram.toString());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+}
@@ -0,0 +1,140 @@
+package de.heiden.jem.components.clock;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import org.junit.jupiter.api.Test;
+
+import static de.heiden.jem.components.clock.RealTimeSlowDown.WARP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link RealTimeSlowDown}.
+ */
+class RealTimeSlowDownTest {
+    /**
+     * Frequency of the clock.
+     */
+    private static final int FREQUENCY = 100_000;
+
+    /**
+     * Simulated time.
+     */
+    private final SimulatedTimeSource time = new SimulatedTimeSource();
+
+    /**
+     * Test for {@link RealTimeSlowDown#setSpeed(double)}.
+     */
+    @Test
+    void setSpeed() {
+        try (var clock = createClock()) {
+            // Adjust 100 times per second.
+            var slowDown = new RealTimeSlowDown(clock, FREQUENCY, FREQUENCY / 100, false, time);
+
+            slowDown.setSpeed(4);
+            long start = time.nanoTime();
+            clock.run(FREQUENCY);
+            long elapsed = time.nanoTime() - start;
+            // 1 emulated second at 4 times the speed.
+            assertEquals(250_000_000L, elapsed);
+        }
+    }
+
+    /**
+     * Test for {@link RealTimeSlowDown#warpUntil(java.util.function.BooleanSupplier)}.
+     */
+    @Test
+    void warpUntil() {
+        try (var clock = createClock()) {
+            // Adjust 100 times per second.
+            var slowDown = new RealTimeSlowDown(clock, FREQUENCY, FREQUENCY / 100, false, time);
+
+            slowDown.warpUntil(() -> clock.getTick() >= 10 * FREQUENCY);
+            long start = time.nanoTime();
+            clock.run(10 * FREQUENCY - FREQUENCY / 2);
+            long elapsed = time.nanoTime() - start;
+            // Nearly 10 emulated seconds as fast as possible.
+            assertEquals(WARP, slowDown.getSpeed());
+            assertEquals(0, elapsed, "Not slowed down");
+
+            start = time.nanoTime();
+            clock.run(FREQUENCY);
+            elapsed = time.nanoTime() - start;
+            // Back in real time after 10 emulated seconds: The last 0.5 emulated seconds take 0.5 s.
+            assertEquals(1.0, slowDown.getSpeed());
+            assertEquals(500_000_000L, elapsed, "Slowed down again");
+        }
+    }
+
+    /**
+     * Test for the precise mode and its statistics.
+     */
+    @Test
+    void precise() {
+        try (var clock = createClock()) {
+            // Adjust 50 times per second.
+            var slowDown = new RealTimeSlowDown(clock, FREQUENCY, FREQUENCY / 50, true, time);
+
+            long start = time.nanoTime();
+            clock.run(FREQUENCY / 2);
+            long elapsed = time.nanoTime() - start;
+            // 0.5 emulated seconds in real time.
+            assertEquals(500_000_000L, elapsed, "Slowed down");
+
+            // Adjustments at ticks 0, 2000, ..., 50000. The first one just starts the measurement.
+            // Parking ends before the target, spinning hits it exactly.
+            assertEquals(25, slowDown.getJitter().getCount());
+            assertEquals(25, slowDown.getJitter().getCount(0));
+            assertEquals(0, slowDown.getOverruns().getCount());
+        }
+    }
+
+    /**
+     * Test that the emulation being too slow is recorded as overruns, without catching up later.
+     */
+    @Test
+    void overruns() {
+        try (var clock = createClock()) {
+            // Adjust 50 times per second, so every 20 ms.
+            var slowDown = new RealTimeSlowDown(clock, FREQUENCY, FREQUENCY / 50, true, time);
+            // Emulating 20 ms takes 30 ms.
+            clock.addClockEvent(1, new ClockEvent("Slow emulation") {
+                @Override
+                public void execute(long tick) {
+                    time.advance(30_000_000);
+                    clock.addClockEvent(tick + FREQUENCY / 50, this);
+                }
+            });
+
+            clock.run(FREQUENCY / 2);
+
+            // Each adjustment after the first one is 10 ms too late, because the missing time is not caught up.
+            assertEquals(0, slowDown.getJitter().getCount());
+            assertEquals(25, slowDown.getOverruns().getCount());
+            assertEquals(25, slowDown.getOverruns().getCount(PacingHistogram.bucket(10_000_000)));
+        }
+    }
+
+    /**
+     * Test that the adjustments take place at the multiples of the period, e.g. at the start of each frame.
+     */
+    @Test
+    void aligned() {
+        try (var clock = createClock()) {
+            clock.run(1500);
+
+            var slowDown = new RealTimeSlowDown(clock, FREQUENCY, 1000, true, time);
+            assertEquals(2000, slowDown.getTick(), "First adjustment at the start of the next period");
+
+            clock.run(5000);
+            assertEquals(7000, slowDown.getTick());
+        }
+    }
+
+    /**
+     * Create clock with one idle component.
+     */
+    private static Clock createClock() {
+        var clock = new CycleBudgetClock();
+        clock.addClockedComponent(Clock.CPU, new CounterComponent(1000));
+        return clock;
+    }
+}
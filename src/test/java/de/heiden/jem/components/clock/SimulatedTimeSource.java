@@ -0,0 +1,46 @@
+package de.heiden.jem.components.clock;
+
+/**
+ * Simulated {@link TimeSource} for tests: Time passes just when waiting or when {@link #advance(long) advanced}.
+ */
+public final class SimulatedTimeSource implements TimeSource {
+    /**
+     * Time (ns) passing per spin wait.
+     */
+    public static final long SPIN_NANOS = 1000;
+
+    /**
+     * Current timestamp (ns).
+     */
+    private long now = 0;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public void sleep(long millis) {
+        now += millis * 1000000;
+    }
+
+    @Override
+    public void parkNanos(Object blocker, long nanos) {
+        now += nanos;
+    }
+
+    @Override
+    public void onSpinWait() {
+        now += SPIN_NANOS;
+    }
+
+    /**
+     * Let time pass, e.g. to simulate a slow emulation.
+     *
+     * @param nanos
+     *         Time (ns).
+     */
+    public void advance(long nanos) {
+        now += nanos;
+    }
+}
@@ -0,0 +1,173 @@
+package de.heiden.jem.components.clock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static de.heiden.jem.components.clock.TimingWheelClockEventQueue.WHEEL_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Test for {@link TimingWheelClockEventQueue}.
+ */
+class TimingWheelClockEventQueueTest {
+    @Test
+    void peek_empty() {
+        var queue = new TimingWheelClockEventQueue();
+        assertEquals(Long.MAX_VALUE, queue.peek().tick);
+        assertNull(queue.poll(0));
+    }
+
+    @Test
+    void addAndPoll_wheel() {
+        var queue = new TimingWheelClockEventQueue();
+        var event1 = new TestClockEvent();
+        var event2a = new TestClockEvent();
+        var event2b = new TestClockEvent();
+
+        queue.add(2, event2a);
+        queue.add(1, event1);
+        queue.add(2, event2b);
+        assertSame(event1, queue.peek());
+
+        assertNull(queue.poll(0));
+        assertSame(event1, queue.poll(1));
+        assertNull(queue.poll(1));
+        var polled = List.of(queue.poll(2), queue.poll(2));
+        assertEquals(true, polled.contains(event2a) && polled.contains(event2b));
+        assertNull(queue.poll(2));
+        assertEquals(Long.MAX_VALUE, queue.peek().tick);
+    }
+
+    @Test
+    void addAndPoll_heap() {
+        var queue = new TimingWheelClockEventQueue();
+        var eventNear = new TestClockEvent();
+        var eventFar = new TestClockEvent();
+        var eventVeryFar = new TestClockEvent();
+
+        queue.add(10L * WHEEL_SIZE, eventVeryFar);
+        queue.add(2L * WHEEL_SIZE, eventFar);
+        queue.add(WHEEL_SIZE - 1, eventNear);
+        assertSame(eventNear, queue.peek());
+
+        assertSame(eventNear, queue.poll(WHEEL_SIZE - 1));
+        assertSame(eventFar, queue.peek());
+        assertNull(queue.poll(WHEEL_SIZE));
+        assertSame(eventFar, queue.poll(2L * WHEEL_SIZE));
+        assertSame(eventVeryFar, queue.peek());
+        assertSame(eventVeryFar, queue.poll(10L * WHEEL_SIZE));
+        assertEquals(Long.MAX_VALUE, queue.peek().tick);
+    }
+
+    @Test
+    void update() {
+        var queue = new TimingWheelClockEventQueue();
+        var event1 = new TestClockEvent();
+        var event2 = new TestClockEvent();
+
+        queue.add(1, event1);
+        queue.add(2, event2);
+
+        // Move from wheel to heap.
+        queue.update(3L * WHEEL_SIZE, event1);
+        assertSame(event2, queue.peek());
+        // Move from heap back to wheel.
+        queue.update(3, event1);
+        assertSame(event2, queue.poll(2));
+        assertSame(event1, queue.poll(3));
+    }
+
+    @Test
+    void remove() {
+        var queue = new TimingWheelClockEventQueue();
+        var eventWheel = new TestClockEvent();
+        var eventHeap = new TestClockEvent();
+        var eventNotAdded = new TestClockEvent();
+
+        queue.add(1, eventWheel);
+        queue.add(2L * WHEEL_SIZE, eventHeap);
+
+        // Remove not registered event -> No change.
+        queue.remove(eventNotAdded);
+        assertSame(eventWheel, queue.peek());
+
+        queue.remove(eventWheel);
+        assertSame(eventHeap, queue.peek());
+        queue.remove(eventHeap);
+        assertEquals(Long.MAX_VALUE, queue.peek().tick);
+
+        // Remove already removed event -> No change.
+        queue.remove(eventHeap);
+        assertEquals(Long.MAX_VALUE, queue.peek().tick);
+    }
+
+    /**
+     * Compare the queue with {@link LinkedClockEventQueue} for random operations.
+     */
+    @Test
+    void random() {
+        var random = new Random(42);
+        var wheel = new TimingWheelClockEventQueue();
+        var linked = new LinkedClockEventQueue();
+        var wheelEvents = new ArrayList<TestClockEvent>();
+        var linkedEvents = new ArrayList<TestClockEvent>();
+        for (int i = 0; i < 32; i++) {
+            wheelEvents.add(new TestClockEvent());
+            linkedEvents.add(new TestClockEvent());
+        }
+
+        var wheelExecuted = new ArrayList<Integer>();
+        var linkedExecuted = new ArrayList<Integer>();
+        for (long tick = 0; tick < 100_000; tick++) {
+            for (ClockEvent event; (event = wheel.poll(tick)) != null; ) {
+                wheelExecuted.add(wheelEvents.indexOf(event));
+            }
+            for (ClockEvent event; (event = linked.poll(tick)) != null; ) {
+                linkedExecuted.add(linkedEvents.indexOf(event));
+            }
+            wheelExecuted.sort(null);
+            linkedExecuted.sort(null);
+            assertEquals(linkedExecuted, wheelExecuted);
+            wheelExecuted.clear();
+            linkedExecuted.clear();
+
+            int i = random.nextInt(wheelEvents.size());
+            long delay = 1 + (random.nextBoolean() ? random.nextInt(16) : random.nextInt(4 * WHEEL_SIZE));
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    wheel.remove(wheelEvents.get(i));
+                    linked.remove(linkedEvents.get(i));
+                }
+                default -> {
+                    wheel.remove(wheelEvents.get(i));
+                    wheel.add(tick + delay, wheelEvents.get(i));
+                    linked.remove(linkedEvents.get(i));
+                    linked.add(tick + delay, linkedEvents.get(i));
+                }
+            }
+            assertEquals(linked.peek().tick, wheel.peek().tick);
+        }
+    }
+
+    /**
+     * Clock event implementation for testing.
+     */
+    private static final class TestClockEvent extends ClockEvent {
+        /**
+         * Constructor.
+         */
+        TestClockEvent() {
+            super("Test event");
+        }
+
+        @Override
+        public void execute(long tick) {
+            // Nothing to do.
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.heiden.jem.components.clock.budget;
+
+import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.components.clock.ClockTestBase;
+import de.heiden.jem.components.clock.CounterComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link CycleBudgetClock}.
+ */
+class CycleBudgetClockTest extends ClockTestBase {
+    @Override
+    protected CycleBudgetClock createClock() {
+        return new CycleBudgetClock();
+    }
+
+    @Override
+    protected int numCounters() {
+        // The clock supports just one component.
+        return 1;
+    }
+
+    /**
+     * Test that events are executed while skipping ticks.
+     */
+    @Test
+    void eventsWhileSkipping() {
+        try (var clock = createClock()) {
+            var counter = clock.addClockedComponent(0, new CounterComponent(10));
+            var event = new ClockEvent("Test event") {
+                private long count = 0;
+
+                @Override
+                public void execute(long tick) {
+                    assertEquals(clock.getTick(), tick);
+                    count++;
+                    clock.addClockEvent(tick + 3, this);
+                }
+            };
+            clock.addClockEvent(3, event);
+
+            clock.run(1000);
+
+            assertEquals(100, counter.getCount());
+            assertEquals(1000, clock.getTick());
+            // Events at 3, 6, ..., 999.
+            assertEquals(333, event.count);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.heiden.jem.components.clock.budget;
+
+import de.heiden.jem.components.clock.ClockTestBase;
+import de.heiden.jem.components.clock.CounterComponent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link InlineCycleBudgetClock}.
+ */
+class InlineCycleBudgetClockTest extends ClockTestBase {
+    @Override
+    protected InlineCycleBudgetClock createClock() {
+        return new InlineCycleBudgetClock();
+    }
+
+    @Override
+    protected int numCounters() {
+        // The clock supports just one component.
+        return 1;
+    }
+
+    /**
+     * Test that limited runs by different threads continue exactly where the previous run stopped.
+     */
+    @Test
+    void runByDifferentThreads() throws Exception {
+        try (var clock = createClock(); var executor = Executors.newFixedThreadPool(2)) {
+            var counter = clock.addClockedComponent(0, new CounterComponent(3));
+
+            for (int i = 1; i <= 10; i++) {
+                executor.submit(() -> clock.run(100)).get();
+
+                assertEquals(i * 100, clock.getTick());
+            }
+            assertEquals(334, counter.getCount());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.heiden.jem.components.clock.threads;
+
+import de.heiden.jem.components.clock.ClockEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static de.heiden.jem.components.clock.threads.EventSubmissionQueue.ADD;
+import static de.heiden.jem.components.clock.threads.EventSubmissionQueue.REMOVE;
+import static de.heiden.jem.components.clock.threads.EventSubmissionQueue.UPDATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link EventSubmissionQueue}.
+ */
+class EventSubmissionQueueTest {
+    @Test
+    void submitAndPoll() {
+        var queue = new EventSubmissionQueue();
+        var event = new TestClockEvent();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        queue.submit(ADD, 1, event);
+        queue.submit(UPDATE, 2, event);
+        queue.submit(REMOVE, -1, event);
+
+        // Submissions have to be polled in order.
+        var add = queue.poll();
+        assertEquals(ADD, add.operation);
+        assertEquals(1, add.tick);
+        assertSame(event, add.event);
+        var update = queue.poll();
+        assertEquals(UPDATE, update.operation);
+        assertEquals(2, update.tick);
+        assertEquals(REMOVE, queue.poll().operation);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void concurrentSubmit() throws Exception {
+        var queue = new EventSubmissionQueue();
+        var event = new TestClockEvent();
+        int numThreads = 4;
+        int submissions = 10000;
+
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < numThreads; t++) {
+            final long offset = (long) t * submissions;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < submissions; i++) {
+                    queue.submit(ADD, offset + i, event);
+                }
+            }));
+        }
+
+        // Poll concurrently to the producers.
+        // The submissions of each producer have to be polled in order.
+        var nextTicks = new long[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            nextTicks[t] = (long) t * submissions;
+        }
+        for (int polled = 0; polled < numThreads * submissions; ) {
+            var submission = queue.poll();
+            if (submission != null) {
+                polled++;
+                int t = (int) (submission.tick / submissions);
+                assertEquals(nextTicks[t]++, submission.tick);
+            }
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Clock event implementation for testing.
+     */
+    private static final class TestClockEvent extends ClockEvent {
+        /**
+         * Constructor.
+         */
+        TestClockEvent() {
+            super("Test event");
+        }
+
+        @Override
+        public void execute(long tick) {
+            // Nothing to do.
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package de.heiden.jem.components.clock.threads;
 
 import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockEvent;
 import de.heiden.jem.components.clock.ClockTestBase;
+import de.heiden.jem.components.clock.CounterComponent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * Test for {@link SequentialClock}.
@@ -11,4 +20,38 @@ class SequentialClockTest extends ClockTestBase {
     protected Clock createClock() {
         return new SequentialClock();
     }
+
+    /**
+     * Events added by another thread while the clock is running have to be executed,
+     * even if their submission is applied after their tick has already started.
+     */
+    @Test
+    void addClockEvent_otherThread() {
+        int events = 1000;
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (var clock = new SequentialClock()) {
+                clock.addClockedComponent(0, new CounterComponent());
+                var executed = new Semaphore(0);
+                var running = new AtomicBoolean(true);
+                var runner = Thread.ofPlatform().daemon().start(() -> {
+                    while (running.get()) {
+                        clock.run(100);
+                    }
+                });
+
+                for (int i = 0; i < events; i++) {
+                    clock.addClockEvent(clock.getTick() + 1, new ClockEvent("Test event " + i) {
+                        @Override
+                        public void execute(long tick) {
+                            executed.release();
+                        }
+                    });
+                }
+                executed.acquire(events);
+
+                running.set(false);
+                runner.join();
+            }
+        });
+    }
 }
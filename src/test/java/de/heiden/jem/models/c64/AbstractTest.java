@@ -102,7 +102,8 @@ public abstract class AbstractTest {
      *         Name C64 thread.
      */
     protected void createC64(String threadName) throws Exception {
-        c64 = new TestC64();
+        // Start from the state after the boot, so that the boot is not executed again for each test.
+        c64 = new TestC64(TestC64.bootSnapshot());
         c64.setSystemOut(console);
         systemIn = c64.getSystemIn();
 
@@ -115,13 +116,7 @@ public abstract class AbstractTest {
         }, threadName);
         thread.start();
 
-        // Reset the program end flag.
-        c64.hasEnded();
-
-        // Wait for the boot to finish.
-        assertSame(programEnd, waitSecondsFor(3, programEnd));
-
-        // Reset the program end flag.
+        // The boot has already been finished, so just reset the program end flag.
         c64.hasEnded();
 
         console.clear();
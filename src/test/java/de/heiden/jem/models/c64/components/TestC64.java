@@ -3,6 +3,7 @@ package de.heiden.jem.models.c64.components;
 import de.heiden.jem.components.bus.BusDevice;
 import de.heiden.jem.components.clock.Clock;
 import de.heiden.jem.components.clock.ClockEvent;
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
 import de.heiden.jem.components.clock.serialthreads.SerialClock;
 import de.heiden.jem.models.c64.components.cia.CIA6526;
 import de.heiden.jem.models.c64.components.cpu.C64Bus;
@@ -13,10 +14,13 @@ import de.heiden.jem.models.c64.components.memory.ColorRAM;
 import de.heiden.jem.models.c64.components.memory.RAM;
 import de.heiden.jem.models.c64.components.memory.ROMLoader;
 import de.heiden.jem.models.c64.components.patch.BrkDetector;
+import de.heiden.jem.models.c64.components.patch.CaptureSnapshot;
 import de.heiden.jem.models.c64.components.patch.ProgramEndDetector;
 import de.heiden.jem.models.c64.components.patch.Return;
 import de.heiden.jem.models.c64.components.patch.StopAtSystemIn;
 import de.heiden.jem.models.c64.components.patch.SystemOut;
+import de.heiden.jem.models.c64.components.snapshot.Snapshot;
+import de.heiden.jem.models.c64.components.snapshot.Stateful;
 import de.heiden.jem.models.c64.components.vic.VIC6569PAL;
 import de.heiden.jem.models.c64.components.vic.VICBus;
 import de.heiden.jem.models.c64.gui.swing.emulator.KeyListener;
@@ -30,6 +34,12 @@ import static java.lang.Thread.interrupted;
  * Modified C64 for better testability.
  */
 public class TestC64 {
+    /**
+     * System property selecting the clock of all test C64s:
+     * "serial" for the {@link SerialClock} (default) or "budget" for the {@link CycleBudgetClock}.
+     */
+    public static final String CLOCK_PROPERTY = "jem.test.clock";
+
     /**
      * Main clock.
      */
@@ -45,6 +55,26 @@ public class TestC64 {
      */
     private final CPU6510Debugger cpu;
 
+    /**
+     * RAM.
+     */
+    private final RAM ram;
+
+    /**
+     * Color RAM.
+     */
+    private final ColorRAM colorRam;
+
+    /**
+     * CIA 1.
+     */
+    private final CIA6526 cia1;
+
+    /**
+     * CIA 2.
+     */
+    private final CIA6526 cia2;
+
     /**
      * Keyboard.
      */
@@ -70,27 +100,68 @@ public class TestC64 {
      */
     private final BrkDetector brk = new BrkDetector();
 
+    /**
+     * Snapshot after the boot, shared by all test C64s.
+     */
+    private static Snapshot bootSnapshot;
+
+    /**
+     * Snapshot after the boot. The boot is executed just once and shared by all test C64s.
+     * The snapshot is captured when "READY." has been printed, right when the program end detector triggers.
+     */
+    public static synchronized Snapshot bootSnapshot() throws Exception {
+        if (bootSnapshot == null) {
+            var c64 = new TestC64();
+            var capture = c64.captureAt(0xE38B);
+            for (int i = 0; i < 100 && capture.getSnapshot() == null; i++) {
+                c64.clock.run(100000);
+            }
+            c64.clock.close();
+
+            bootSnapshot = capture.getSnapshot();
+            if (bootSnapshot == null) {
+                throw new IllegalStateException("Boot did not finish.");
+            }
+        }
+
+        return bootSnapshot;
+    }
+
+    /**
+     * Constructor for a C64 continuing with the given snapshot, e.g. the {@link #bootSnapshot() boot snapshot}.
+     *
+     * @param snapshot
+     *         Snapshot
+     */
+    public TestC64(Snapshot snapshot) throws Exception {
+        this();
+
+        snapshot.restore(clock, snapshotComponents());
+    }
+
     /**
      * Constructor.
      */
     public TestC64() throws Exception {
-        clock = new SerialClock();
+        // The cycle budget clock executes just the cpu, so the vic has to catch up lazily.
+        boolean budget = "budget".equals(System.getProperty(CLOCK_PROPERTY, "serial"));
+        clock = budget ? new CycleBudgetClock() : new SerialClock();
 
-        var ram = new RAM(0x10000);
-        var colorRam = new ColorRAM(0x400);
+        ram = new RAM(0x10000);
+        colorRam = new ColorRAM(0x400);
         var basic = ROMLoader.basic(ROMLoader.DEFAULT_BASIC);
         var kernel = ROMLoader.kernel(ROMLoader.DEFAULT_KERNEL);
         var charset = ROMLoader.character(ROMLoader.DEFAULT_CHARACTER);
 
-        var cia1 = new CIA6526(clock);
-        var cia2 = new CIA6526(clock);
+        cia1 = new CIA6526(clock);
+        cia2 = new CIA6526(clock);
 
         var vicBus = new VICBus(cia2.portA(), ram, charset);
-        vic = new VIC6569PAL(clock, vicBus, colorRam);
+        vic = new VIC6569PAL(clock, vicBus, colorRam, budget);
 
         keyboard = new Keyboard(cia1.portA(), cia1.portB());
 
-        cpu = clock.addClockedComponent(Clock.CPU, new CPU6510Debugger());
+        cpu = clock.addClockedComponent(Clock.CPU, new CPU6510Debugger(clock));
         cpuBus = new C64Bus(ram, basic, vic, colorRam, cia1, cia2, charset, kernel);
         cpuBus.connect(cpu.getPort());
         cpu.connect(cpuBus);
@@ -124,6 +195,34 @@ public class TestC64 {
         });
     }
 
+    /**
+     * Capture a snapshot of the current state.
+     * Has to be called by the cpu thread between two opcodes or by a patch, e.g. {@link CaptureSnapshot}.
+     */
+    public Snapshot capture() {
+        return Snapshot.capture(clock, snapshotComponents());
+    }
+
+    /**
+     * Components contained in snapshots, in the order to restore them.
+     */
+    private Stateful[] snapshotComponents() {
+        return new Stateful[] { ram, colorRam, cia1, cia2, keyboard, vic, cpu };
+    }
+
+    /**
+     * Capture a snapshot, when the cpu executes the opcode at the given address the next time.
+     *
+     * @param address
+     *         Address of the opcode
+     * @return Patch providing the snapshot, when it has been captured
+     */
+    public CaptureSnapshot captureAt(int address) {
+        var patch = new CaptureSnapshot(address, this::capture);
+        cpu.add(patch);
+        return patch;
+    }
+
     /**
      * Add patch.
      */
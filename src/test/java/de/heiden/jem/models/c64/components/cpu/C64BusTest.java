@@ -0,0 +1,159 @@
+package de.heiden.jem.models.c64.components.cpu;
+
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.components.ports.OutputPortImpl;
+import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.memory.ROM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link C64Bus}.
+ */
+class C64BusTest {
+    private RAM ram;
+    private ColorRAM colorRam;
+    private OutputPortImpl port;
+    private C64Bus bus;
+
+    @BeforeEach
+    void setUp() {
+        ram = new RAM(0x10000);
+        for (int address = 0; address < 0x10000; address++) {
+            ram.write(0x01, address);
+        }
+        colorRam = new ColorRAM(0x400);
+        var basic = rom(0x2000, 0x02);
+        var charset = rom(0x1000, 0x03);
+        var kernel = rom(0x2000, 0x04);
+
+        bus = new C64Bus(ram, basic, new Device(0x10), colorRam, new Device(0x11), new Device(0x12), charset, kernel);
+        port = new OutputPortImpl();
+        port.setOutputMask(0x07);
+        bus.connect(port);
+    }
+
+    /**
+     * Test that banking switches the direct reads of plain memory pages.
+     */
+    @Test
+    void banking() {
+        port.setOutputData(0x07);
+        assertEquals(0x01, bus.read(0x9FFF));
+        assertEquals(0x02, bus.read(0xA000));
+        assertEquals(0x10, bus.read(0xD000));
+        assertEquals(0x11, bus.read(0xDC00));
+        assertEquals(0x04, bus.read(0xFFFF));
+
+        // Color RAM is plain memory too.
+        colorRam.write(0x05, 0x0001);
+        assertEquals(0x05, bus.read(0xD801));
+        bus.write(0x06, 0xDBFF);
+        assertEquals(0x06, bus.read(0xDBFF));
+
+        port.setOutputData(0x03);
+        assertEquals(0x02, bus.read(0xA000));
+        assertEquals(0x03, bus.read(0xD000));
+
+        port.setOutputData(0x00);
+        assertEquals(0x01, bus.read(0xA000));
+        assertEquals(0x01, bus.read(0xD000));
+        assertEquals(0x01, bus.read(0xFFFF));
+
+        ram.write(0x07, 0xE000);
+        assertEquals(0x07, bus.read(0xE000));
+    }
+
+    /**
+     * Test that patches of ROMs are visible to direct reads.
+     */
+    @Test
+    void patch() {
+        port.setOutputData(0x07);
+        bus.patch(0x02, 0xE000);
+        assertEquals(0x02, bus.read(0xE000));
+        assertEquals(0x04, bus.read(0xE001));
+    }
+
+    /**
+     * Test that writes to watched pages and mode changes are reported to all memory listeners.
+     */
+    @Test
+    void memoryListeners() {
+        port.setOutputData(0x07);
+        var listener1 = new Listener();
+        var listener2 = new Listener();
+        bus.addMemoryListener(listener1);
+        bus.addMemoryListener(listener2);
+        bus.watch(0x10, true);
+        bus.watch(0x10, true);
+
+        bus.write(0x00, 0x1000);
+        bus.write(0x00, 0x1100);
+        assertEquals(List.of(0x1000), listener1.writes);
+        assertEquals(List.of(0x1000), listener2.writes);
+
+        bus.removeMemoryListener(listener1);
+        bus.watch(0x10, false);
+        bus.write(0x00, 0x1001);
+        port.setOutputData(0x06);
+        assertEquals(List.of(0x1000), listener1.writes);
+        assertEquals(List.of(), listener1.modes);
+        assertEquals(List.of(0x1000, 0x1001), listener2.writes);
+        assertEquals(List.of(bus.getMode()), listener2.modes);
+
+        // Watches are counted.
+        bus.watch(0x10, false);
+        bus.write(0x00, 0x1002);
+        assertEquals(List.of(0x1000, 0x1001), listener2.writes);
+    }
+
+    /**
+     * Create ROM with an off-heap content.
+     */
+    private static ROM rom(int size, int value) {
+        var content = new byte[size];
+        Arrays.fill(content, (byte) value);
+        return new ROM(new ROM(content).snapshot(Arena.ofAuto()));
+    }
+
+    /**
+     * Memory listener recording the reported writes and modes.
+     */
+    private static final class Listener implements C64Bus.MemoryListener {
+        private final List<Integer> writes = new ArrayList<>();
+        private final List<Integer> modes = new ArrayList<>();
+
+        @Override
+        public void write(int address) {
+            writes.add(address);
+        }
+
+        @Override
+        public void modeChanged(int mode) {
+            modes.add(mode);
+        }
+    }
+
+    /**
+     * IO device, returning always the same value.
+     */
+    private record Device(int value) implements BusDevice {
+        @Override
+        public void write(int value, int address) {
+        }
+
+        @Override
+        public int read(int address) {
+            return value;
+        }
+    }
+}
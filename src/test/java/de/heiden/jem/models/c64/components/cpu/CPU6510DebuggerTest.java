@@ -0,0 +1,76 @@
+package de.heiden.jem.models.c64.components.cpu;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.memory.ROM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link CPU6510Debugger}.
+ */
+class CPU6510DebuggerTest {
+    /**
+     * Program at $1000: Loop incrementing its own operand.
+     */
+    private static final int[] PROGRAM = {
+            0xA9, 0x00,       // $1000: LDA #$00, operand incremented
+            0xEE, 0x01, 0x10, // $1002: INC $1001
+            0x4C, 0x00, 0x10, // $1005: JMP $1000
+    };
+
+    /**
+     * Test that the traces contain the executed opcodes, even if they have been modified.
+     */
+    @Test
+    void trace() {
+        var clock = new CycleBudgetClock();
+        var cpu = new CPU6510Debugger(clock);
+        var memory = new RAM(0x10000);
+        for (int i = 0; i < PROGRAM.length; i++) {
+            memory.write(PROGRAM[i], 0x1000 + i);
+        }
+
+        // Kernel with reset vector $1000.
+        var kernel = new byte[0x2000];
+        kernel[0x1FFC] = 0x00;
+        kernel[0x1FFD] = 0x10;
+
+        var bus = new C64Bus(memory, new ROM(new byte[0x2000]), memory, new ColorRAM(0x400), memory, memory,
+                new ROM(new byte[0x1000]), new ROM(kernel));
+        clock.addClockedComponent(Clock.CPU, cpu);
+        bus.connect(cpu.getPort());
+        cpu.connect(bus);
+
+        clock.run(1000);
+        clock.close();
+
+        // Last complete loop: LDA, INC, JMP. The LDA of the loop before has been executed with the previous operand.
+        // The last trace may be incomplete, because the clock stops in the middle of an opcode.
+        int current = cpu.getCurrentTrace() - 3;
+        while (cpu.getTrace(current).address != 0x1000) {
+            current--;
+        }
+        var lda = cpu.getTrace(current);
+        var inc = cpu.getTrace(current + 1);
+        var jmp = cpu.getTrace(current + 2);
+        var previous = cpu.getTrace(current - 3);
+
+        assertEquals(0x1000, lda.address);
+        assertEquals(0xA9, lda.bytes[0] & 0xFF);
+        assertEquals((previous.bytes[1] + 1) & 0xFF, lda.bytes[1] & 0xFF);
+        assertEquals(0x1002, inc.address);
+        assertArrayEquals(new byte[]{(byte) 0xEE, 0x01, 0x10}, inc.bytes);
+        assertEquals(0x1005, jmp.address);
+        assertArrayEquals(new byte[]{0x4C, 0x00, 0x10}, jmp.bytes);
+
+        // LDA #: 2 cycles, INC abs: 6 cycles, JMP abs: 3 cycles.
+        assertEquals(lda.tick + 2, inc.tick);
+        assertEquals(inc.tick + 6, jmp.tick);
+        assertEquals(previous.tick + 11, lda.tick);
+    }
+}
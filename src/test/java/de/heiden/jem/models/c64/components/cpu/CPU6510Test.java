@@ -811,8 +811,8 @@ class CPU6510Test {
         state.X = value ^ 0xFF;
         state.Y = value ^ 0xFF;
         // Set the status which get changed to a different value.
-        state.Z = !z(value);
-        state.N = !n(value);
+        state.setZ(!z(value));
+        state.setN(!n(value));
     }
 
     /**
@@ -856,8 +856,8 @@ class CPU6510Test {
      * Expect Z and N flag to be changed according to the given value.
      */
     void expectedZN(int value) {
-        expectedState.Z = z(value);
-        expectedState.N = n(value);
+        expectedState.setZ(z(value));
+        expectedState.setN(n(value));
     }
 
     /**
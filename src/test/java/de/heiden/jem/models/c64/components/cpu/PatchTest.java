@@ -0,0 +1,136 @@
+package de.heiden.jem.models.c64.components.cpu;
+
+import de.heiden.jem.components.bus.BusDevice;
+import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.memory.ROM;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for adding and removing {@link Patch}es to {@link CPU6510}.
+ */
+class PatchTest {
+    /**
+     * Patched address in the kernel.
+     */
+    private static final int ADDRESS = 0xE000;
+
+    private RAM ram;
+    private ROM kernel;
+    private C64Bus bus;
+    private CPU6510 cpu;
+
+    @BeforeEach
+    void setUp() {
+        ram = new RAM(0x10000);
+        for (int address = 0; address < 0x10000; address++) {
+            ram.write(0x01, address);
+        }
+        var content = new byte[0x2000];
+        Arrays.fill(content, (byte) 0xEA);
+        kernel = new ROM(content);
+
+        bus = new C64Bus(ram, new ROM(new byte[0x2000]), new Device(), new ColorRAM(0x400), new Device(), new Device(),
+                new ROM(new byte[0x1000]), kernel);
+        cpu = new CPU6510();
+        bus.connect(cpu.getPort());
+        cpu.connect(bus);
+        cpu.writePort(0x2F, 0x0000);
+        // RAM instead of kernel.
+        cpu.writePort(0x35, 0x0001);
+    }
+
+    /**
+     * Test that adding a patch patches the kernel, even if the RAM is mapped instead, and keeps the memory layout.
+     */
+    @Test
+    void add() {
+        int mode = bus.getMode();
+
+        cpu.add(new TestPatch());
+
+        assertEquals(0x02, kernel.read(ADDRESS));
+        assertEquals(mode, bus.getMode());
+        assertEquals(0x01, bus.read(ADDRESS));
+    }
+
+    /**
+     * Test that removing a patch restores the replaced opcode and keeps the memory layout.
+     */
+    @Test
+    void remove() {
+        int mode = bus.getMode();
+        var patch = new TestPatch();
+        cpu.add(patch);
+
+        cpu.remove(patch);
+
+        assertEquals(0xEA, kernel.read(ADDRESS));
+        assertEquals(mode, bus.getMode());
+        assertEquals(0x01, bus.read(ADDRESS));
+    }
+
+    /**
+     * Test that removing a patch, which has not been added, does nothing.
+     */
+    @Test
+    void removeForeign() {
+        cpu.add(new TestPatch());
+
+        cpu.remove(new TestPatch());
+
+        assertEquals(0x02, kernel.read(ADDRESS));
+    }
+
+    /**
+     * Test that replacing a patch keeps the originally replaced opcode
+     * and that just the replacing patch can be removed.
+     */
+    @Test
+    void replaceAndRemove() {
+        var patch1 = new TestPatch();
+        var patch2 = new TestPatch();
+        cpu.add(patch1);
+        cpu.add(patch2);
+
+        // Replaced patch: Nothing to remove.
+        cpu.remove(patch1);
+        assertEquals(0x02, kernel.read(ADDRESS));
+
+        cpu.remove(patch2);
+        assertEquals(0xEA, kernel.read(ADDRESS));
+    }
+
+    /**
+     * Patch doing nothing.
+     */
+    private static final class TestPatch extends Patch {
+        private TestPatch() {
+            super(ADDRESS);
+        }
+
+        @Override
+        protected int execute(CPU6510State state, BusDevice bus) {
+            return replaced;
+        }
+    }
+
+    /**
+     * IO device, returning always the same value.
+     */
+    private static final class Device implements BusDevice {
+        @Override
+        public void write(int value, int address) {
+        }
+
+        @Override
+        public int read(int address) {
+            return 0x00;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.heiden.jem.models.c64.components.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Test for {@link RAM}.
+ */
+class RAMTest {
+    /**
+     * Test read and write off-heap.
+     */
+    @Test
+    void offHeap() {
+        try (var arena = Arena.ofConfined()) {
+            var ram = new RAM(arena.allocate(0x10000));
+            ram.write(0xFF, 0x1234);
+            ram.write(0x80, 0x11234);
+
+            assertEquals(0x80, ram.read(0x1234));
+            assertEquals(0x00, ram.read(0x1235));
+        }
+    }
+
+    /**
+     * Test snapshot and restore.
+     */
+    @Test
+    void snapshot() {
+        var ram = new RAM(0x10000);
+        ram.write(0x12, 0x0400);
+        var snapshot = ram.snapshot(Arena.ofAuto());
+
+        ram.write(0x34, 0x0400);
+        ram.restore(snapshot);
+
+        assertEquals(0x12, ram.read(0x0400));
+    }
+
+    /**
+     * Test that RAMs sharing their pages are written independently and copy only the written pages.
+     */
+    @Test
+    void share() {
+        var ram = new RAM(0x10000);
+        ram.write(0x12, 0x0400);
+        var shared = ram.share();
+        var fork = new RAM(0x10000);
+        fork.restore(shared);
+
+        ram.write(0x34, 0x0400);
+        fork.write(0x56, 0x0401);
+
+        assertEquals(0x34, ram.read(0x0400));
+        assertEquals(0x00, ram.read(0x0401));
+        assertEquals(0x12, fork.read(0x0400));
+        assertEquals(0x56, fork.read(0x0401));
+        assertEquals(0x12, shared[0x04].get(JAVA_BYTE, 0x00), "Shared page untouched");
+        assertSame(shared[0x05], ram.page(0x0500), "Unwritten page still shared");
+        assertSame(shared[0x05], fork.page(0x0500), "Unwritten page still shared");
+    }
+}
@@ -0,0 +1,33 @@
+package de.heiden.jem.models.c64.components.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link ROM}.
+ */
+class ROMTest {
+    /**
+     * Test that shared ROMs can be patched independently.
+     */
+    @Test
+    void patchShared() throws Exception {
+        var rom1 = ROMLoader.kernel(ROMLoader.DEFAULT_KERNEL);
+        var rom2 = ROMLoader.kernel(ROMLoader.DEFAULT_KERNEL);
+        var page = rom1.page(0x1000);
+        assertTrue(page.isReadOnly());
+
+        int original = rom2.read(0x1000);
+        rom1.patch(0x02, 0x1000);
+
+        assertEquals(0x02, rom1.read(0x1000));
+        assertEquals(0x02, rom1.page(0x1000).get(JAVA_BYTE, 0x00), "Copy of patched page");
+        assertEquals(original, page.get(JAVA_BYTE, 0x00) & 0xFF, "Shared page untouched");
+        assertEquals(rom2.read(0x1001), rom1.read(0x1001), "Rest of patched page");
+        assertEquals(original, rom2.read(0x1000));
+        assertEquals(original, ROMLoader.kernel(ROMLoader.DEFAULT_KERNEL).read(0x1000));
+    }
+}
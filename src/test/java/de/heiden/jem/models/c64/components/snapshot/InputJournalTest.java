@@ -0,0 +1,98 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.cpu.CPU6510;
+import de.heiden.jem.models.c64.components.keyboard.Key;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link InputJournal}, {@link InputRecorder} and {@link InputReplay}.
+ * Uses the {@link CycleBudgetClock}, because it does not need the serialthreads transformation.
+ */
+class InputJournalTest {
+    /**
+     * Number of ticks to execute: The boot, typing and about 100 frames.
+     */
+    private static final int TICKS = 4_500_000;
+
+    /**
+     * Test that a replay of the recorded inputs reproduces the recorded run exactly.
+     */
+    @Test
+    void recordAndReplay() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        var journal = record(original, clock);
+
+        var bytes = new ByteArrayOutputStream();
+        journal.write(bytes);
+        var read = InputJournal.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(journal.getEntries().size(), read.getEntries().size());
+
+        var replayClock = new CycleBudgetClock();
+        var replayed = new C64(replayClock, new CPU6510(), true, false);
+        var replay = replayed.replayInputs(read);
+        replayClock.run(TICKS);
+        replayClock.close();
+
+        assertEquals(clock.getTick(), replayClock.getTick());
+        assertTrue(replay.isFinished());
+        assertTrue(replay.getChecksums() > 200);
+        assertEquals(-1, replay.getDivergence());
+        assertEquals(original.getCpu().getState(), replayed.getCpu().getState());
+    }
+
+    /**
+     * Test that a replay with missing inputs diverges from the recording.
+     */
+    @Test
+    void divergence() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        var journal = record(original, clock);
+
+        // Drop the key presses and releases.
+        var checksums = new InputJournal();
+        journal.getEntries().stream()
+                .filter(entry -> entry.kind() == InputJournal.Kind.CHECKSUM)
+                .forEach(checksums::add);
+
+        var replayClock = new CycleBudgetClock();
+        var replayed = new C64(replayClock, new CPU6510(), true, false);
+        var replay = replayed.replayInputs(checksums);
+        replayClock.run(TICKS);
+        replayClock.close();
+
+        assertTrue(replay.getDivergence() > 0);
+    }
+
+    /**
+     * Boot the C64 and type "A" and RESTORE from the test thread, while recording the inputs.
+     */
+    private static InputJournal record(C64 c64, CycleBudgetClock clock) {
+        var recorder = c64.recordInputs();
+        // Boot.
+        clock.run(3_000_000);
+        recorder.press(Key.A);
+        clock.run(100_000);
+        recorder.release(Key.A);
+        recorder.press(Key.RESTORE);
+        clock.run(100_000);
+        recorder.release(Key.RESTORE);
+        clock.run(TICKS - 3_200_000);
+        clock.close();
+
+        var journal = recorder.getJournal();
+        assertEquals(4, journal.getEntries().stream()
+                .filter(entry -> entry.kind() != InputJournal.Kind.CHECKSUM)
+                .count());
+        return journal;
+    }
+}
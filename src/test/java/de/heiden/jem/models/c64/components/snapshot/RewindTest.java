@@ -0,0 +1,104 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.cpu.CPU6510Debugger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link Rewind}.
+ * Uses the {@link CycleBudgetClock}, because it does not need the serialthreads transformation.
+ */
+class RewindTest {
+    /**
+     * Number of ticks to execute: The boot and about 100 frames.
+     */
+    private static final int TICKS = 4_500_000;
+
+    /**
+     * Test that stepping back opcodes restores the state at the traced opcode.
+     */
+    @Test
+    void stepBackOpcodes() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, true, true, false);
+        var cpu = (CPU6510Debugger) original.getCpu();
+        var rewind = original.recordRewind(16 * 1024 * 1024);
+        clock.run(TICKS);
+        clock.close();
+
+        // The checkpoints after the first one just contain the pages written during a frame.
+        assertTrue(rewind.size() > 80);
+        assertTrue(rewind.getMemory() < 4 * 1024 * 1024);
+
+        var position = rewind.stepBackOpcodes(10000);
+        assertNotNull(position);
+        var expected = cpu.getTrace((cpu.getCurrentTrace() - 10000 + cpu.getTraceCapacity()) % cpu.getTraceCapacity());
+
+        var restoredClock = new CycleBudgetClock();
+        var restored = new C64(restoredClock, true, true, false);
+        var restoredCpu = (CPU6510Debugger) restored.getCpu();
+        restored.restore(position);
+        // The cpu thread blocks, when the debugger suspends.
+        Thread.ofPlatform().daemon().start(() -> restoredClock.run(TICKS));
+        assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+            while (!restoredCpu.isSuspended()) {
+                Thread.sleep(10);
+            }
+        });
+
+        assertEquals(position.opcodes(), restoredCpu.getExecuted());
+        assertEquals(expected.address, restoredCpu.getState().PC);
+        assertEquals(expected.tick, restoredClock.getTick());
+
+        restoredClock.close();
+        restoredCpu.stop();
+    }
+
+    /**
+     * Test that the oldest checkpoints are dropped, if the budget is exceeded.
+     */
+    @Test
+    void budget() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, true, true, false);
+        var rewind = original.recordRewind(256 * 1024);
+        clock.run(TICKS);
+        clock.close();
+
+        assertTrue(rewind.getMemory() <= 256 * 1024);
+        assertTrue(rewind.size() > 1);
+        assertNotNull(rewind.stepBack(rewind.size()));
+        assertNull(rewind.stepBack(rewind.size() + 1));
+        assertNull(rewind.stepBackOpcodes(Long.MAX_VALUE / 2));
+    }
+
+    /**
+     * Test that closing stops capturing checkpoints, but keeps the captured ones.
+     */
+    @Test
+    void close() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, true, true, false);
+        var rewind = original.recordRewind(16 * 1024 * 1024);
+        clock.run(TICKS);
+        int size = rewind.size();
+        long memory = rewind.getMemory();
+
+        rewind.close();
+        clock.run(TICKS);
+        clock.close();
+
+        assertEquals(size, rewind.size());
+        assertEquals(memory, rewind.getMemory());
+        assertNotNull(rewind.stepBack(size));
+    }
+}
@@ -0,0 +1,263 @@
+package de.heiden.jem.models.c64.components.snapshot;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.budget.CycleBudgetClock;
+import de.heiden.jem.components.clock.threads.SequentialClock;
+import de.heiden.jem.models.c64.components.C64;
+import de.heiden.jem.models.c64.components.cpu.CPU6510;
+import de.heiden.jem.models.c64.components.cpu.CPU6510Debugger;
+import de.heiden.jem.models.c64.components.keyboard.Key;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link Snapshot}.
+ * Uses the {@link CycleBudgetClock}, because it does not need the serialthreads transformation.
+ * The clocked vic needs a clock supporting more than one clocked component,
+ * so the {@link SequentialClock} is used for it, which does not need the serialthreads transformation either.
+ */
+class SnapshotTest {
+    /**
+     * Address of the main loop of the basic interpreter, reached after printing "READY.".
+     */
+    private static final int READY = 0xE38B;
+
+    /**
+     * Test that a C64 restored from a snapshot after the boot continues exactly like the original one,
+     * including cycles, irqs of the cias, the raster position of the vic and pressed keys.
+     */
+    @Test
+    void captureAndRestore() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        // Keep a key pressed, so that the keyboard is part of the state too.
+        original.getKeyboard().press(Key.A);
+        var snapshot = boot(original, clock);
+
+        assertContinuesLike(original, clock, snapshot);
+    }
+
+    /**
+     * Test that a C64 with the clocked (non-lazy) vic restored from a snapshot after the boot
+     * continues exactly like the original one, including the rendered screen.
+     * The snapshot is taken in the middle of a raster line, so the display unit is restored mid-line,
+     * like for the boot snapshot of {@link de.heiden.jem.models.c64.components.TestC64}.
+     */
+    @Test
+    void captureAndRestoreClockedVic() throws Exception {
+        var clock = new SequentialClock();
+        var original = new C64(clock, new CPU6510(), false, false);
+        original.getKeyboard().press(Key.A);
+        var snapshot = boot(original, clock);
+
+        assertContinuesLike(original, clock, snapshot, SequentialClock::new, false);
+    }
+
+    /**
+     * Test that a snapshot captured on request by another thread restores the state too.
+     */
+    @Test
+    void captureNow() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        boot(original, clock);
+
+        var capture = original.captureNow();
+        assertFalse(capture.isDone());
+        clock.run(100);
+        var snapshot = capture.get(0, TimeUnit.SECONDS);
+
+        assertTrue(snapshot.getTick() <= clock.getTick());
+        assertContinuesLike(original, clock, snapshot);
+    }
+
+    /**
+     * Test that a snapshot written to a stream and read back restores the same state.
+     */
+    @Test
+    void writeAndRead() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        var snapshot = boot(original, clock);
+
+        var bytes = new ByteArrayOutputStream();
+        snapshot.write(bytes);
+        // The state contains at least the RAM and is compressed.
+        assertTrue(bytes.size() < 0x10000);
+
+        var read = Snapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(snapshot.getTick(), read.getTick());
+        assertContinuesLike(original, clock, read);
+    }
+
+    /**
+     * Test that forks continue exactly like the original one and independently of each other.
+     */
+    @Test
+    void fork() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510(), true, false);
+        var snapshot = boot(original, clock);
+
+        var forkClock = new CycleBudgetClock();
+        var fork = original.fork(forkClock, snapshot);
+        var otherClock = new CycleBudgetClock();
+        var other = original.fork(otherClock, snapshot);
+        other.getKeyboard().press(Key.A);
+        otherClock.run(1000);
+
+        assertContinuesLike(original, clock, snapshot, fork, forkClock);
+
+        otherClock.run((int) (forkClock.getTick() - otherClock.getTick()));
+        assertEquals(forkClock.getTick(), otherClock.getTick());
+        assertFalse(Arrays.equals(memory(fork), memory(other)));
+        otherClock.close();
+    }
+
+    /**
+     * Test that forks of a C64 with the debugger cpu run concurrently, each one exactly like the original one.
+     */
+    @Test
+    void forkConcurrently() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, true, true, false);
+        var snapshot = boot(original, clock);
+        clock.run(500000);
+        clock.close();
+        var ticks = (int) (clock.getTick() - snapshot.getTick());
+
+        var forks = new ArrayList<Future<C64>>();
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                forks.add(executor.submit(() -> {
+                    var forkClock = new CycleBudgetClock();
+                    var fork = original.fork(forkClock, snapshot);
+                    forkClock.run(ticks);
+                    forkClock.close();
+                    assertEquals(clock.getTick(), forkClock.getTick());
+                    return fork;
+                }));
+            }
+        }
+
+        for (var future : forks) {
+            var fork = future.get(0, TimeUnit.SECONDS);
+            assertEquals(0, ((CPU6510Debugger) fork.getCpu()).getTraceCapacity());
+            assertEquals(original.getCpu().getState(), fork.getCpu().getState());
+            assertArrayEquals(memory(original), memory(fork));
+        }
+    }
+
+    /**
+     * Test that C64s with a cpu unknown to the fork are not forked with a different cpu.
+     */
+    @Test
+    void forkUnknownCpu() throws Exception {
+        var clock = new CycleBudgetClock();
+        var original = new C64(clock, new CPU6510() {}, true, false);
+        var snapshot = original.capture();
+
+        assertThrows(IllegalArgumentException.class, () -> original.fork(new CycleBudgetClock(), snapshot));
+    }
+
+    /**
+     * Test that streams without a snapshot of the current version are rejected.
+     */
+    @Test
+    void readInvalid() {
+        assertThrows(IOException.class, () -> Snapshot.read(new ByteArrayInputStream(new byte[8])));
+
+        var bytes = new byte[]{ 0x4A, 0x45, 0x4D, 0x53, 0x00, 0x00 };
+        assertThrows(IOException.class, () -> Snapshot.read(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Boot the C64 and capture a snapshot at "READY.".
+     */
+    private static Snapshot boot(C64 c64, Clock clock) {
+        var capture = c64.captureAt(READY);
+        for (int i = 0; i < 30 && capture.getSnapshot() == null; i++) {
+            clock.run(100000);
+        }
+        var snapshot = capture.getSnapshot();
+        assertNotNull(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Assert that a C64 restored from the snapshot continues exactly like the original one.
+     */
+    private static void assertContinuesLike(C64 original, Clock clock, Snapshot snapshot) throws Exception {
+        assertContinuesLike(original, clock, snapshot, CycleBudgetClock::new, true);
+    }
+
+    /**
+     * Assert that a C64 restored from the snapshot continues exactly like the original one.
+     *
+     * @param clocks
+     *         creates the clock of the restored C64
+     * @param lazyVic
+     *         use the lazy vic for the restored C64, like the original one
+     */
+    private static void assertContinuesLike(
+            C64 original, Clock clock, Snapshot snapshot, Supplier<Clock> clocks, boolean lazyVic) throws Exception {
+        var restoredClock = clocks.get();
+        var restored = new C64(restoredClock, new CPU6510(), lazyVic, false);
+        restored.restore(snapshot);
+        assertContinuesLike(original, clock, snapshot, restored, restoredClock);
+    }
+
+    /**
+     * Assert that a C64 restored from a snapshot of the original one continues exactly like the original one.
+     */
+    private static void assertContinuesLike(
+            C64 original, Clock clock, Snapshot snapshot, C64 restored, Clock restoredClock) {
+        // The first run includes the start of the clock.
+        restoredClock.run(1000);
+        assertEquals(snapshot.getTick() + 1000, restoredClock.getTick());
+
+        for (int i = 0; i < 3; i++) {
+            clock.run(500000);
+            restoredClock.run((int) (clock.getTick() - restoredClock.getTick()));
+
+            assertEquals(clock.getTick(), restoredClock.getTick());
+            assertEquals(original.getCpu().getState(), restored.getCpu().getState());
+            assertArrayEquals(memory(original), memory(restored));
+            assertArrayEquals(original.getVIC()._displayUnit.display(), restored.getVIC()._displayUnit.display());
+        }
+
+        clock.close();
+        restoredClock.close();
+    }
+
+    /**
+     * Content of the memory and the vic registers as seen by the cpu.
+     * Skips the patched opcode and the registers with side effects on read.
+     */
+    private static int[] memory(C64 c64) {
+        var result = new int[0x10000];
+        for (int address = 0; address < 0x10000; address++) {
+            if (address == READY || address >= 0xD01E && address < 0xE000) {
+                continue;
+            }
+            result[address] = c64.getCpuBus().read(address);
+        }
+        return result;
+    }
+}
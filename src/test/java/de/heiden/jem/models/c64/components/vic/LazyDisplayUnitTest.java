@@ -0,0 +1,126 @@
+package de.heiden.jem.models.c64.components.vic;
+
+import de.heiden.jem.components.clock.Clock;
+import de.heiden.jem.components.clock.ClockedComponent;
+import de.heiden.jem.components.clock.Tick;
+import de.heiden.jem.components.clock.serialthreads.SerialClock;
+import de.heiden.jem.components.ports.OutputPortImpl;
+import de.heiden.jem.models.c64.components.memory.ColorRAM;
+import de.heiden.jem.models.c64.components.memory.RAM;
+import de.heiden.jem.models.c64.components.memory.ROM;
+import org.junit.jupiter.api.Test;
+import org.serialthreads.Interruptible;
+import org.serialthreads.agent.Transform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for {@link LazyDisplayUnit}.
+ */
+@Transform(classPrefixes = "de.heiden.jem")
+class LazyDisplayUnitTest {
+    /**
+     * Test that the lazy vic shows the same raster lines and raster irqs as the clocked vic.
+     */
+    @Test
+    void raster() {
+        var clock = new SerialClock();
+        var clocked = createVIC(clock, false);
+        var lazy = createVIC(clock, true);
+        var probe = clock.addClockedComponent(Clock.CPU, new Probe(clocked, lazy));
+
+        // Run a bit more than two frames.
+        clock.run(2 * 312 * 504 + 1000);
+        clock.close();
+
+        assertEquals(0, probe.mismatches);
+        assertEquals(2, probe.irqs);
+    }
+
+    /**
+     * Create vic.
+     */
+    private static VIC createVIC(Clock clock, boolean lazy) {
+        var ram = new RAM(0x10000);
+        var charset = new ROM(new byte[0x1000]);
+        var vicBus = new VICBus(new OutputPortImpl(), ram, charset);
+        return new VIC6569PAL(clock, vicBus, new ColorRAM(0x400), lazy);
+    }
+
+    /**
+     * Component simulating the cpu: Compares both vics at each tick.
+     */
+    private static final class Probe implements ClockedComponent {
+        /**
+         * Clocked vic.
+         */
+        private final VIC clocked;
+
+        /**
+         * Lazy vic.
+         */
+        private final VIC lazy;
+
+        /**
+         * Tick.
+         */
+        private Tick tick;
+
+        /**
+         * Number of ticks with differing vic states.
+         */
+        private int mismatches = 0;
+
+        /**
+         * Number of raster irqs of the lazy vic.
+         */
+        private int irqs = 0;
+
+        /**
+         * Constructor.
+         */
+        private Probe(VIC clocked, VIC lazy) {
+            this.clocked = clocked;
+            this.lazy = lazy;
+        }
+
+        @Override
+        public String getName() {
+            return "Probe";
+        }
+
+        @Override
+        public void setTick(Tick tick) {
+            this.tick = tick;
+        }
+
+        @Override
+        @Interruptible
+        public void run() {
+            for (VIC vic : new VIC[]{clocked, lazy}) {
+                // Raster irq at line 100.
+                vic.write(100, 0xD012);
+                vic.write(0x01, 0xD01A);
+            }
+
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                tick.waitForTick();
+
+                if (lazy.getIRQ().outputData() == 0) {
+                    irqs++;
+                }
+                if (clocked.read(0xD012) != lazy.read(0xD012) ||
+                        clocked.read(0xD011) != lazy.read(0xD011) ||
+                        clocked.read(0xD019) != lazy.read(0xD019) ||
+                        clocked.getIRQ().outputData() != lazy.getIRQ().outputData()) {
+                    mismatches++;
+                }
+
+                // Acknowledge irqs.
+                clocked.write(0x0F, 0xD019);
+                lazy.write(0x0F, 0xD019);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.heiden.jem.models.c64.farm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for {@link EmulatorFarm}.
+ */
+class EmulatorFarmTest {
+    /**
+     * Basic token "POKE".
+     */
+    private static final int POKE = 0x97;
+
+    /**
+     * Basic token "PRINT".
+     */
+    private static final int PRINT = 0x99;
+
+    /**
+     * Basic token "GOTO".
+     */
+    private static final int GOTO = 0x89;
+
+    /**
+     * Test that more jobs than workers finish with their conditions.
+     */
+    @Test
+    void jobs() throws Exception {
+        var greenBorder = Condition.inMemory(0xD020, 0x05);
+        var hello = Condition.onConsole("hello");
+
+        try (var farm = new EmulatorFarm(2, EmulatorFarm.DEFAULT_QUANTUM)) {
+            var poke = farm.submit(new Job("poke", program(POKE, "53280,5"), 5000000, greenBorder));
+            var print = farm.submit(new Job("print", program(PRINT, "\"HELLO\""), 5000000, hello));
+            var end = farm.submit(new Job("end", program(PRINT, "\"HELLO\""), 5000000, greenBorder));
+            var loop = farm.submit(new Job("loop", program(GOTO, "10"), 500000, greenBorder));
+
+            assertSame(greenBorder, poke.get().condition());
+            assertSame(hello, print.get().condition());
+
+            var endResult = end.get();
+            assertTrue(endResult.isMet(Condition.PROGRAM_END));
+            assertTrue(endResult.console().contains("hello"));
+
+            var loopResult = loop.get();
+            assertNull(loopResult.condition());
+            assertNull(loopResult.failure());
+            assertEquals(500000, loopResult.ticks());
+        }
+    }
+
+    /**
+     * Test that a long-running job does not starve the jobs submitted after it.
+     */
+    @Test
+    void timeSliced() throws Exception {
+        var greenBorder = Condition.inMemory(0xD020, 0x05);
+
+        try (var farm = new EmulatorFarm(1, EmulatorFarm.DEFAULT_QUANTUM)) {
+            var loop = farm.submit(new Job("loop", program(GOTO, "10"), Long.MAX_VALUE / 2));
+            var poke = farm.submit(new Job("poke", program(POKE, "53280,5"), 5000000, greenBorder));
+
+            assertSame(greenBorder, poke.get(30, TimeUnit.SECONDS).condition());
+            assertFalse(loop.isDone());
+        }
+    }
+
+    /**
+     * Test that closing the farm aborts the running and the queued jobs.
+     * The running C64 stops itself after its current quantum.
+     */
+    @Test
+    void close() throws Exception {
+        var farm = new EmulatorFarm(1, EmulatorFarm.DEFAULT_QUANTUM);
+        var running = farm.submit(new Job("running", program(GOTO, "10"), Long.MAX_VALUE / 2));
+        var queued = farm.submit(new Job("queued", program(GOTO, "10"), Long.MAX_VALUE / 2));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), farm::close);
+        assertTrue(running.isCancelled());
+        assertTrue(queued.isCancelled());
+    }
+
+    /**
+     * Basic program consisting of the single line 10.
+     *
+     * @param token
+     *         Token of the statement.
+     * @param arguments
+     *         Arguments of the statement.
+     */
+    private static byte[] program(int token, String arguments) {
+        int next = 0x0801 + 5 + arguments.length() + 1;
+        var bytes = new ByteArrayOutputStream();
+        // Load address.
+        bytes.write(0x01);
+        bytes.write(0x08);
+        // Line 10.
+        bytes.write(next & 0xFF);
+        bytes.write(next >> 8);
+        bytes.write(10);
+        bytes.write(0);
+        bytes.write(token);
+        bytes.writeBytes(arguments.getBytes(US_ASCII));
+        bytes.write(0);
+        // End of program.
+        bytes.write(0);
+        bytes.write(0);
+        return bytes.toByteArray();
+    }
+}